@@ -0,0 +1,58 @@
+#!/usr/bin/env bash
+#
+# Measures time-to-first-accepted-batch: from JVM launch until
+# POST /events/batch returns "accepted":1 for a fresh event.
+#
+# Usage:
+#   scripts/startup-benchmark.sh [runs] -- <java command...>
+#
+# Examples:
+#   mvn -B package -DskipTests
+#   scripts/startup-benchmark.sh 5 -- java -jar target/factory_events-0.0.1-SNAPSHOT.jar
+#
+#   mvn -B -Paot-cds package -DskipTests
+#   scripts/startup-benchmark.sh 5 -- java -Dspring.aot.enabled=true \
+#       -XX:SharedArchiveFile=target/application/application.jsa \
+#       -jar target/application/factory_events-0.0.1-SNAPSHOT.jar
+
+set -euo pipefail
+
+RUNS=${1:-5}
+shift || true
+[[ "${1:-}" == "--" ]] && shift
+
+if [[ $# -eq 0 ]]; then
+    echo "usage: $0 [runs] -- <java command...>" >&2
+    exit 1
+fi
+
+PORT=${PORT:-8081}
+URL="http://localhost:${PORT}/events/batch"
+total=0
+
+for run in $(seq 1 "$RUNS"); do
+    event_id="STARTUP-$(date +%s%N)"
+    event_time=$(date -u -d '-1 minute' +%Y-%m-%dT%H:%M:%SZ)
+    body="[{\"eventId\":\"${event_id}\",\"machineId\":\"M-STARTUP\",\"eventTime\":\"${event_time}\",\"durationMs\":1000,\"defectCount\":0}]"
+
+    start=$(date +%s%N)
+    "$@" --server.port="${PORT}" >/dev/null 2>&1 &
+    pid=$!
+
+    until curl -sf -H 'Content-Type: application/json' -d "${body}" "${URL}" | grep -q '"accepted":1'; do
+        if ! kill -0 "${pid}" 2>/dev/null; then
+            echo "run ${run}: application exited before accepting a batch" >&2
+            exit 1
+        fi
+        sleep 0.05
+    done
+
+    elapsed=$(( ($(date +%s%N) - start) / 1000000 ))
+    total=$(( total + elapsed ))
+    echo "run ${run}: ${elapsed} ms"
+
+    kill "${pid}"
+    wait "${pid}" 2>/dev/null || true
+done
+
+echo "average: $(( total / RUNS )) ms over ${RUNS} runs"
@@ -1,13 +1,69 @@
 package com.company.factory_events;
 
+import com.company.factory_events.dto.BatchIngestResponseDto;
+import com.company.factory_events.service.BulkLoadService;
 import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 @SpringBootApplication
 public class FactoryEventsApplication {
 
-    public static void main(String[] args) {
+    private static final String BULK_LOAD_OPTION = "--bulk-load=";
+    private static final String BULK_FORMAT_OPTION = "--bulk-format=";
+
+    public static void main(String[] args) throws IOException {
+        String bulkLoadFile = option(args, BULK_LOAD_OPTION);
+
+        if (bulkLoadFile != null) {
+            runBulkLoad(args, Path.of(bulkLoadFile));
+            return;
+        }
+
         SpringApplication.run(FactoryEventsApplication.class, args);
     }
 
+    /**
+     * CLI mode: {@code --bulk-load=<file> [--bulk-format=csv|ndjson]} loads the
+     * file without starting the web server and prints the ingest counters.
+     */
+    private static void runBulkLoad(String[] args, Path file) throws IOException {
+        String format = option(args, BULK_FORMAT_OPTION);
+        if (format == null) {
+            format = file.toString().endsWith(".ndjson") ? "ndjson" : "csv";
+        }
+
+        SpringApplication application = new SpringApplication(FactoryEventsApplication.class);
+        application.setWebApplicationType(WebApplicationType.NONE);
+
+        try (ConfigurableApplicationContext context = application.run(args);
+             InputStream input = Files.newInputStream(file)) {
+
+            long start = System.nanoTime();
+            BatchIngestResponseDto result = context.getBean(BulkLoadService.class)
+                    .load(input, BulkLoadService.Format.parse(format));
+            long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+            System.out.printf(
+                    "accepted=%d updated=%d deduped=%d ignored=%d rejected=%d elapsedMs=%d%n",
+                    result.getAccepted(), result.getUpdated(), result.getDeduped(),
+                    result.getIgnored(), result.getRejected(), elapsedMs);
+        }
+    }
+
+    private static String option(String[] args, String prefix) {
+        for (String arg : args) {
+            if (arg.startsWith(prefix)) {
+                return arg.substring(prefix.length());
+            }
+        }
+        return null;
+    }
+
 }
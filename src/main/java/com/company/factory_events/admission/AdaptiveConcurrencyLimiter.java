@@ -0,0 +1,107 @@
+package com.company.factory_events.admission;
+
+/**
+ * Concurrency limit for ingest requests that follows database latency,
+ * gradient style.
+ *
+ * Samples are whole-request latencies; requests that did no database work
+ * (every event rejected) carry no latency signal and are skipped. Samples are
+ * averaged over windows of {@code WINDOW_SAMPLES} requests. The short-term
+ * latency is the latest window, the baseline a slow moving average of windows,
+ * so neither a single outlier nor a run of cheap requests can reset it. When
+ * the short-term latency exceeds {@code tolerance} times the baseline the limit
+ * shrinks in proportion; otherwise it grows towards {@code limit + sqrt(limit)}
+ * per window, and only while the limit is actually in use. A failed request
+ * cuts the limit right away.
+ */
+class AdaptiveConcurrencyLimiter {
+
+    static final int WINDOW_SAMPLES = 10;
+
+    private static final double BACKOFF = 0.9;
+    private static final double BASELINE_SMOOTHING = 0.05;
+    private static final double LIMIT_SMOOTHING = 0.2;
+    private static final double MIN_GRADIENT = 0.5;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+
+    private double limit;
+    private int inFlight;
+    private double baselineNanos;
+
+    private long windowNanos;
+    private int windowCount;
+    private boolean windowSaturated;
+
+    AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double tolerance) {
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+    }
+
+    synchronized boolean tryAcquire() {
+        if (inFlight >= (int) limit) {
+            return false;
+        }
+        inFlight++;
+        return true;
+    }
+
+    synchronized void release(long elapsedNanos, boolean didDatabaseWork, boolean failed) {
+        windowSaturated |= inFlight >= (int) limit / 2;
+        inFlight--;
+
+        if (failed) {
+            limit = Math.max(minLimit, limit * BACKOFF);
+            return;
+        }
+        if (!didDatabaseWork) {
+            return;
+        }
+
+        windowNanos += elapsedNanos;
+        if (++windowCount < WINDOW_SAMPLES) {
+            return;
+        }
+
+        double shortNanos = windowNanos / (double) windowCount;
+        boolean saturated = windowSaturated;
+        windowNanos = 0;
+        windowCount = 0;
+        windowSaturated = false;
+
+        if (baselineNanos == 0) {
+            baselineNanos = shortNanos;
+            return;
+        }
+        baselineNanos += (shortNanos - baselineNanos) * BASELINE_SMOOTHING;
+        if (baselineNanos > 2 * shortNanos) {
+            // Load has dropped well below what the baseline saw; let it recover.
+            baselineNanos *= 0.95;
+        }
+
+        double gradient = Math.max(MIN_GRADIENT, Math.min(1.0, tolerance * baselineNanos / shortNanos));
+        double target;
+        if (gradient < 1.0) {
+            target = limit * gradient;
+        } else if (saturated) {
+            target = limit + Math.sqrt(limit);
+        } else {
+            return;
+        }
+
+        limit = Math.max(minLimit, Math.min(maxLimit,
+                limit * (1 - LIMIT_SMOOTHING) + target * LIMIT_SMOOTHING));
+    }
+
+    synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    synchronized int getInFlight() {
+        return inFlight;
+    }
+}
@@ -0,0 +1,147 @@
+package com.company.factory_events.admission;
+
+import com.company.factory_events.dto.BatchIngestResponseDto;
+import com.company.factory_events.dto.EventRequestDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Admission control in front of batch ingest.
+ *
+ * A batch must first fit the per-source token bucket (events per second,
+ * keyed by the {@code X-Gateway-Id} header or else the batch's factoryId/lineId)
+ * and then get a slot under the adaptive global concurrency limit. Either
+ * failure is an immediate {@link AdmissionRejectedException}, turned into a
+ * 429 with Retry-After, instead of waiting for a database connection.
+ */
+@Component
+public class AdmissionControl {
+
+    private static final String ANONYMOUS_SOURCE = "anonymous";
+    private static final long CONCURRENCY_RETRY_AFTER_SECONDS = 1;
+
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final double sourceBurst;
+    private final double sourceRatePerSecond;
+    private final long bucketIdleNanos;
+
+    public AdmissionControl(@Value("${admission.source-burst:5000}") double sourceBurst,
+                            @Value("${admission.source-rate:1000}") double sourceRatePerSecond,
+                            @Value("${admission.source-idle-ms:600000}") long sourceIdleMs,
+                            @Value("${admission.initial-limit:10}") int initialLimit,
+                            @Value("${admission.min-limit:2}") int minLimit,
+                            @Value("${admission.max-limit:50}") int maxLimit,
+                            @Value("${admission.latency-tolerance:2.0}") double latencyTolerance) {
+        this.sourceBurst = sourceBurst;
+        this.sourceRatePerSecond = sourceRatePerSecond;
+        this.bucketIdleNanos = TimeUnit.MILLISECONDS.toNanos(sourceIdleMs);
+        this.limiter = new AdaptiveConcurrencyLimiter(initialLimit, minLimit, maxLimit, latencyTolerance);
+    }
+
+    /**
+     * Admits a client batch: per-source rate, then global concurrency.
+     */
+    public Permit admit(String gatewayId, List<EventRequestDto> events) {
+        String source = sourceOf(gatewayId, events);
+        long now = System.nanoTime();
+
+        TokenBucket bucket = buckets.computeIfAbsent(
+                source, k -> new TokenBucket(sourceBurst, sourceRatePerSecond, now));
+
+        long waitNanos = bucket.tryConsume(events.size(), now);
+        if (waitNanos > 0) {
+            throw new AdmissionRejectedException("SOURCE_RATE_LIMITED",
+                    Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L)));
+        }
+
+        if (!limiter.tryAcquire()) {
+            bucket.refund(events.size());
+            throw new AdmissionRejectedException("OVERLOADED", CONCURRENCY_RETRY_AFTER_SECONDS);
+        }
+
+        return new Permit();
+    }
+
+    /**
+     * Admits a batch forwarded by a peer node. The entry node already charged
+     * the source, so only the concurrency limit applies.
+     */
+    public Permit admitForwarded() {
+        if (!limiter.tryAcquire()) {
+            throw new AdmissionRejectedException("OVERLOADED", CONCURRENCY_RETRY_AFTER_SECONDS);
+        }
+        return new Permit();
+    }
+
+    @Scheduled(fixedDelayString = "${admission.source-idle-ms:600000}")
+    public void evictIdleSources() {
+        long now = System.nanoTime();
+        buckets.values().removeIf(bucket -> now - bucket.getLastUsedNanos() > bucketIdleNanos);
+    }
+
+    public int getConcurrencyLimit() {
+        return limiter.getLimit();
+    }
+
+    private String sourceOf(String gatewayId, List<EventRequestDto> events) {
+        if (gatewayId != null && !gatewayId.isBlank()) {
+            return gatewayId;
+        }
+        if (!events.isEmpty()) {
+            EventRequestDto first = events.get(0);
+            if (first.getFactoryId() != null || first.getLineId() != null) {
+                return first.getFactoryId() + "/" + first.getLineId();
+            }
+        }
+        return ANONYMOUS_SOURCE;
+    }
+
+    /**
+     * A granted slot, released exactly once. {@link #execute} runs the local
+     * ingest call and releases the slot with its latency; a call that throws
+     * counts as congestion, and a batch whose events were all rejected did no
+     * database work, so its latency is not a sample. {@link #release} gives
+     * the slot back without a sample, e.g. when every event is forwarded.
+     */
+    public class Permit {
+
+        private boolean released;
+
+        private Permit() {
+        }
+
+        public BatchIngestResponseDto execute(Supplier<BatchIngestResponseDto> work) {
+            long start = System.nanoTime();
+            boolean failed = true;
+            boolean didDatabaseWork = false;
+            try {
+                BatchIngestResponseDto result = work.get();
+                failed = false;
+                didDatabaseWork = result.getAccepted() + result.getUpdated()
+                        + result.getDeduped() + result.getIgnored() > 0;
+                return result;
+            } finally {
+                release(System.nanoTime() - start, didDatabaseWork, failed);
+            }
+        }
+
+        public void release() {
+            release(0, false, false);
+        }
+
+        private synchronized void release(long elapsedNanos, boolean didDatabaseWork, boolean failed) {
+            if (!released) {
+                released = true;
+                limiter.release(elapsedNanos, didDatabaseWork, failed);
+            }
+        }
+    }
+}
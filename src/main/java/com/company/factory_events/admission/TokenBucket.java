@@ -0,0 +1,57 @@
+package com.company.factory_events.admission;
+
+/**
+ * Events-per-second budget for one source. Holds at most {@code capacity}
+ * tokens and refills continuously at {@code ratePerSecond}.
+ *
+ * A batch larger than the capacity is admitted once the bucket is full and
+ * charged in full, leaving the balance negative; the source then waits until
+ * the debt is refilled, so oversized batches cannot exceed the rate.
+ */
+class TokenBucket {
+
+    private final double capacity;
+    private final double ratePerSecond;
+
+    private double tokens;
+    private long lastRefillNanos;
+    private volatile long lastUsedNanos;
+
+    TokenBucket(double capacity, double ratePerSecond, long nowNanos) {
+        this.capacity = capacity;
+        this.ratePerSecond = ratePerSecond;
+        this.tokens = capacity;
+        this.lastRefillNanos = nowNanos;
+        this.lastUsedNanos = nowNanos;
+    }
+
+    /**
+     * @return 0 if the tokens were taken, otherwise the nanoseconds until
+     *         enough tokens will have accumulated
+     */
+    synchronized long tryConsume(double amount, long nowNanos) {
+        refill(nowNanos);
+        lastUsedNanos = nowNanos;
+
+        double required = Math.min(amount, capacity);
+        if (tokens >= required) {
+            tokens -= amount;
+            return 0;
+        }
+        return (long) Math.ceil((required - tokens) / ratePerSecond * 1_000_000_000L);
+    }
+
+    synchronized void refund(double amount) {
+        tokens = Math.min(capacity, tokens + amount);
+    }
+
+    long getLastUsedNanos() {
+        return lastUsedNanos;
+    }
+
+    private void refill(long nowNanos) {
+        double elapsedSeconds = (nowNanos - lastRefillNanos) / 1_000_000_000.0;
+        tokens = Math.min(capacity, tokens + elapsedSeconds * ratePerSecond);
+        lastRefillNanos = nowNanos;
+    }
+}
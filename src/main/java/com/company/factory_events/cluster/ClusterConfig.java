@@ -0,0 +1,85 @@
+package com.company.factory_events.cluster;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.web.client.RestClient;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Configuration
+public class ClusterConfig {
+
+    /**
+     * Without {@code cluster.nodes} the ring holds only this node, so every
+     * event is owned locally and nothing is forwarded. With it, this node must
+     * be listed; otherwise it would own nothing and forward every event,
+     * including forwarded ones, so startup fails instead.
+     */
+    @Bean
+    public ConsistentHashRing consistentHashRing(
+            @Value("${cluster.self}") String self,
+            @Value("${cluster.nodes:}") String nodes,
+            @Value("${cluster.virtual-nodes:128}") int virtualNodes) {
+
+        List<String> members = Arrays.stream(nodes.split(","))
+                .map(String::trim)
+                .filter(node -> !node.isEmpty())
+                .toList();
+
+        if (members.isEmpty()) {
+            return new ConsistentHashRing(List.of(self), virtualNodes);
+        }
+        if (!members.contains(self)) {
+            throw new IllegalArgumentException("CLUSTER_SELF_NOT_IN_NODES: " + self);
+        }
+        return new ConsistentHashRing(members, virtualNodes);
+    }
+
+    @Bean
+    public RestClient clusterRestClient(
+            @Value("${cluster.connect-timeout-ms:1000}") int connectTimeoutMs,
+            @Value("${cluster.read-timeout-ms:30000}") int readTimeoutMs) {
+
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(connectTimeoutMs);
+        requestFactory.setReadTimeout(readTimeoutMs);
+
+        return RestClient.builder()
+                .requestFactory(requestFactory)
+                .build();
+    }
+
+    /**
+     * Bounded like the ingest executor: when every thread is busy and the
+     * queue is full, the request thread forwards the part itself.
+     */
+    @Bean(name = "clusterForwardExecutor", destroyMethod = "shutdown")
+    public ExecutorService clusterForwardExecutor(
+            @Value("${cluster.forward-threads:16}") int forwardThreads) {
+
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "cluster-forward-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+
+        return new ThreadPoolExecutor(
+                forwardThreads,
+                forwardThreads,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(forwardThreads * 4),
+                threadFactory,
+                new ThreadPoolExecutor.CallerRunsPolicy()
+        );
+    }
+}
@@ -0,0 +1,79 @@
+package com.company.factory_events.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * Two pools behind one DataSource: read-write transactions use the primary
+ * pool, read-only transactions (the stats endpoints) use the stats pool. The
+ * stats pool points at a streaming replica when {@code stats.datasource.url}
+ * is set, otherwise at the primary with its own connections so heavy range
+ * scans cannot starve ingest.
+ */
+@Configuration
+public class DataSourceConfig {
+
+    @Bean(destroyMethod = "close")
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryPool(
+            @Value("${spring.datasource.url}") String url,
+            @Value("${spring.datasource.username}") String username,
+            @Value("${spring.datasource.password}") String password) {
+
+        HikariDataSource pool = new HikariDataSource();
+        pool.setPoolName("primary");
+        pool.setJdbcUrl(url);
+        pool.setUsername(username);
+        pool.setPassword(password);
+        return pool;
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConfigurationProperties("stats.datasource.hikari")
+    public HikariDataSource statsPool(
+            @Value("${stats.datasource.url:${spring.datasource.url}}") String url,
+            @Value("${stats.datasource.username:${spring.datasource.username}}") String username,
+            @Value("${stats.datasource.password:${spring.datasource.password}}") String password) {
+
+        HikariDataSource pool = new HikariDataSource();
+        pool.setPoolName("stats");
+        pool.setJdbcUrl(url);
+        pool.setUsername(username);
+        pool.setPassword(password);
+        pool.setReadOnly(true);
+        return pool;
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(
+            HikariDataSource statsPool,
+            @Value("${stats.datasource.replica:false}") boolean replica,
+            @Value("${stats.replica.max-lag-ms:5000}") long maxLagMs) {
+
+        return new ReplicaLagMonitor(statsPool, replica, maxLagMs);
+    }
+
+    /**
+     * The lazy proxy defers fetching a physical connection until the first
+     * statement, by which time the transaction has marked the connection
+     * read-only or not, and routes read-only work to the stats side.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryPool,
+                                 HikariDataSource statsPool,
+                                 ReplicaLagMonitor replicaLagMonitor) {
+
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primaryPool);
+        dataSource.setReadOnlyDataSource(
+                new ReplicaRoutingDataSource(statsPool, primaryPool, replicaLagMonitor));
+        return dataSource;
+    }
+}
@@ -0,0 +1,27 @@
+package com.company.factory_events.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.flyway.autoconfigure.FlywayMigrationStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Migrations run on startup unless {@code db.migrate-on-startup=false}.
+ * {@code spring.flyway.enabled} is a bean condition, which Spring AOT fixes
+ * at build time; this switch is read at runtime, so the CDS training run of
+ * an AOT build can start without a database.
+ */
+@Configuration
+public class FlywayConfig {
+
+    @Bean
+    public FlywayMigrationStrategy flywayMigrationStrategy(
+            @Value("${db.migrate-on-startup:true}") boolean migrateOnStartup) {
+
+        return flyway -> {
+            if (migrateOnStartup) {
+                flyway.migrate();
+            }
+        };
+    }
+}
@@ -0,0 +1,42 @@
+package com.company.factory_events.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Configuration
+public class IngestExecutorConfig {
+
+    /**
+     * Bounded executor for chunked batch ingest. Sized to the Hikari pool so
+     * every worker can hold a connection; when the queue is full the calling
+     * request thread runs the chunk itself instead of queueing without limit.
+     */
+    @Bean(name = "ingestExecutor", destroyMethod = "shutdown")
+    public ExecutorService ingestExecutor(
+            @Value("${ingest.parallelism:${spring.datasource.hikari.maximum-pool-size:10}}") int parallelism) {
+
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "ingest-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+
+        return new ThreadPoolExecutor(
+                parallelism,
+                parallelism,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(parallelism * 4),
+                threadFactory,
+                new ThreadPoolExecutor.CallerRunsPolicy()
+        );
+    }
+}
@@ -0,0 +1,71 @@
+package com.company.factory_events.config;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+
+/**
+ * Periodically measures how far the stats replica lags the primary. Reads
+ * fall back to the primary when the lag exceeds {@code stats.replica.max-lag-ms},
+ * the replica cannot be reached, or its WAL receiver is not streaming. A
+ * standby that lost its upstream has replayed everything it received, so
+ * replay position alone would report no lag while it falls further behind.
+ * Reading the receiver status needs {@code pg_read_all_stats} (or superuser);
+ * without it the replica always counts as disconnected.
+ */
+public class ReplicaLagMonitor {
+
+    private static final String LAG_SQL = """
+            SELECT CASE
+                WHEN NOT pg_is_in_recovery() THEN 0
+                WHEN NOT EXISTS (SELECT 1 FROM pg_stat_wal_receiver WHERE status = 'streaming') THEN NULL
+                WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                ELSE coalesce(extract(epoch FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0)
+            END
+            """;
+
+    private final JdbcTemplate replicaJdbcTemplate;
+    private final boolean replica;
+    private final long maxLagMs;
+
+    private volatile boolean replicaUsable;
+    private volatile long lastLagMs = -1;
+
+    public ReplicaLagMonitor(DataSource replicaDataSource, boolean replica, long maxLagMs) {
+        this.replicaJdbcTemplate = new JdbcTemplate(replicaDataSource);
+        this.replica = replica;
+        this.maxLagMs = maxLagMs;
+        this.replicaUsable = !replica;
+    }
+
+    @Scheduled(fixedDelayString = "${stats.replica.check-interval-ms:1000}")
+    public void check() {
+        if (!replica) {
+            return;
+        }
+
+        try {
+            Double lagMs = replicaJdbcTemplate.queryForObject(LAG_SQL, Double.class);
+            if (lagMs == null) {
+                // Not streaming from the primary.
+                lastLagMs = -1;
+                replicaUsable = false;
+            } else {
+                lastLagMs = lagMs.longValue();
+                replicaUsable = lastLagMs <= maxLagMs;
+            }
+        } catch (RuntimeException ex) {
+            lastLagMs = -1;
+            replicaUsable = false;
+        }
+    }
+
+    public boolean isReplicaUsable() {
+        return replicaUsable;
+    }
+
+    public long getLastLagMs() {
+        return lastLagMs;
+    }
+}
@@ -0,0 +1,30 @@
+package com.company.factory_events.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Read-only target: the stats pool while the replica is fresh enough,
+ * otherwise the primary pool.
+ */
+class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final String REPLICA = "replica";
+    private static final String PRIMARY = "primary";
+
+    private final ReplicaLagMonitor replicaLagMonitor;
+
+    ReplicaRoutingDataSource(DataSource replica, DataSource primary, ReplicaLagMonitor replicaLagMonitor) {
+        this.replicaLagMonitor = replicaLagMonitor;
+        setTargetDataSources(Map.of(REPLICA, replica, PRIMARY, primary));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return replicaLagMonitor.isReplicaUsable() ? REPLICA : PRIMARY;
+    }
+}
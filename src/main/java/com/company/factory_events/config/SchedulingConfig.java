@@ -0,0 +1,17 @@
+package com.company.factory_events.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Runs the {@code @Scheduled} jobs: sketch maintenance, change-log purge,
+ * replica lag checks and idle rate-limit bucket pruning.
+ * {@code scheduling.enabled=false} turns all of them off; the tests do so and
+ * call the jobs they need themselves.
+ */
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(name = "scheduling.enabled", havingValue = "true", matchIfMissing = true)
+public class SchedulingConfig {
+}
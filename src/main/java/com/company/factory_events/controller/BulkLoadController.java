@@ -0,0 +1,46 @@
+package com.company.factory_events.controller;
+
+import com.company.factory_events.dto.BatchIngestResponseDto;
+import com.company.factory_events.service.BulkLoadService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+
+@RestController
+@RequestMapping("/admin")
+public class BulkLoadController {
+
+    private static final String CSV = "text/csv";
+    private static final String NDJSON = "application/x-ndjson";
+
+    private final BulkLoadService bulkLoadService;
+
+    public BulkLoadController(BulkLoadService bulkLoadService) {
+        this.bulkLoadService = bulkLoadService;
+    }
+
+    /**
+     * The body is read raw, so only file content types are accepted: a form
+     * content type would have the container consume the body as parameters
+     * and the load would silently see no rows. The format defaults to the
+     * content type.
+     */
+    @PostMapping(value = "/bulk-load", consumes = {CSV, NDJSON})
+    public ResponseEntity<BatchIngestResponseDto> bulkLoad(
+            @RequestParam(required = false) String format,
+            HttpServletRequest request) throws IOException {
+
+        BulkLoadService.Format bulkFormat = format != null
+                ? BulkLoadService.Format.parse(format)
+                : MediaType.parseMediaType(NDJSON).includes(MediaType.parseMediaType(request.getContentType()))
+                        ? BulkLoadService.Format.NDJSON
+                        : BulkLoadService.Format.CSV;
+
+        BatchIngestResponseDto response = bulkLoadService.load(request.getInputStream(), bulkFormat);
+
+        return ResponseEntity.ok(response);
+    }
+}
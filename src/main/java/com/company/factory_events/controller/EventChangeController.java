@@ -0,0 +1,28 @@
+package com.company.factory_events.controller;
+
+import com.company.factory_events.dto.EventChangesResponseDto;
+import com.company.factory_events.service.EventChangeService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/events")
+public class EventChangeController {
+
+    private final EventChangeService eventChangeService;
+
+    public EventChangeController(EventChangeService eventChangeService) {
+        this.eventChangeService = eventChangeService;
+    }
+
+    @GetMapping("/changes")
+    public ResponseEntity<EventChangesResponseDto> getChanges(
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit) {
+
+        EventChangesResponseDto response =
+                eventChangeService.poll(after, limit);
+
+        return ResponseEntity.ok(response);
+    }
+}
@@ -0,0 +1,47 @@
+package com.company.factory_events.controller;
+
+import com.company.factory_events.service.EventExportService;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.Instant;
+
+@RestController
+@RequestMapping("/events")
+public class EventExportController {
+
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private final EventExportService eventExportService;
+
+    public EventExportController(EventExportService eventExportService) {
+        this.eventExportService = eventExportService;
+    }
+
+    /**
+     * The body is written asynchronously, so it is bounded by
+     * {@code spring.mvc.async.request-timeout}; clients resume past that with
+     * the last cursor.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(
+            @RequestParam(required = false) String machineId,
+            @RequestParam(required = false) String lineId,
+            @RequestParam(required = false) Instant start,
+            @RequestParam(required = false) Instant end,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer pageSize,
+            @RequestParam(required = false) Long limit) {
+
+        eventExportService.validate(start, end, after);
+
+        StreamingResponseBody body = out -> eventExportService.export(
+                machineId, lineId, start, end, after, pageSize, limit, out);
+
+        return ResponseEntity.ok()
+                .contentType(NDJSON)
+                .body(body);
+    }
+}
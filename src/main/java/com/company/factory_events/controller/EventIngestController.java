@@ -1,8 +1,13 @@
 package com.company.factory_events.controller;
 
+import com.company.factory_events.admission.AdmissionControl;
+import com.company.factory_events.admission.AdmissionRejectedException;
 import com.company.factory_events.dto.BatchIngestResponseDto;
 import com.company.factory_events.dto.EventRequestDto;
 import com.company.factory_events.service.EventIngestService;
+import com.company.factory_events.service.PartitionedIngestService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -13,19 +18,48 @@ import java.util.List;
 public class EventIngestController {
 
     private final EventIngestService eventIngestService;
+    private final PartitionedIngestService partitionedIngestService;
+    private final AdmissionControl admissionControl;
 
-    public EventIngestController(EventIngestService eventIngestService) {
+    public EventIngestController(EventIngestService eventIngestService,
+                                 PartitionedIngestService partitionedIngestService,
+                                 AdmissionControl admissionControl) {
         this.eventIngestService = eventIngestService;
+        this.partitionedIngestService = partitionedIngestService;
+        this.admissionControl = admissionControl;
     }
 
     @PostMapping("/batch")
     public ResponseEntity<BatchIngestResponseDto> ingestBatch(
+            @RequestHeader(value = "X-Gateway-Id", required = false) String gatewayId,
             @RequestBody List<EventRequestDto> events) {
 
         BatchIngestResponseDto response =
-                eventIngestService.ingestBatch(events);
+                partitionedIngestService.ingestBatch(events, admissionControl.admit(gatewayId, events));
 
         return ResponseEntity.ok(response);
     }
+
+    /**
+     * Internal: a peer forwarding the events this node owns. Ingested
+     * locally without consulting the ring again.
+     */
+    @PostMapping("/batch/owned")
+    public ResponseEntity<BatchIngestResponseDto> ingestOwnedBatch(
+            @RequestBody List<EventRequestDto> events) {
+
+        BatchIngestResponseDto response =
+                admissionControl.admitForwarded()
+                        .execute(() -> eventIngestService.ingestBatch(events));
+
+        return ResponseEntity.ok(response);
+    }
+
+    @ExceptionHandler(AdmissionRejectedException.class)
+    public ResponseEntity<String> rejected(AdmissionRejectedException ex) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(ex.getRetryAfterSeconds()))
+                .body(ex.getMessage());
+    }
 }
 
@@ -1,5 +1,6 @@
 package com.company.factory_events.controller;
 
+import com.company.factory_events.dto.ApproximateStatsResponseDto;
 import com.company.factory_events.dto.StatsResponseDto;
 import com.company.factory_events.service.StatsService;
 import org.springframework.http.ResponseEntity;
@@ -28,5 +29,17 @@ public class StatsController {
 
         return ResponseEntity.ok(response);
     }
-}
 
+    @GetMapping("/approximate")
+    public ResponseEntity<ApproximateStatsResponseDto> getApproximateStats(
+            @RequestParam(required = false) String machineId,
+            @RequestParam(required = false) String factoryId,
+            @RequestParam Instant start,
+            @RequestParam Instant end) {
+
+        ApproximateStatsResponseDto response =
+                statsService.getApproximateStats(machineId, factoryId, start, end);
+
+        return ResponseEntity.ok(response);
+    }
+}
@@ -0,0 +1,156 @@
+package com.company.factory_events.dto;
+
+import java.time.Instant;
+
+public class ApproximateStatsResponseDto {
+
+    private String machineId;
+    private String factoryId;
+    private Instant start;
+    private Instant end;
+
+    /** The window actually answered: start and end widened to whole hours. */
+    private Instant alignedStart;
+    private Instant alignedEnd;
+
+    private long eventsCount;
+    private long defectsCount;
+    private double avgDefectRate;
+    private String status;
+
+    private long distinctMachines;
+    private double distinctMachinesRelativeError;
+
+    private long durationP50Ms;
+    private long durationP95Ms;
+    private long durationP99Ms;
+    private double durationRelativeError;
+
+    public String getMachineId() {
+        return machineId;
+    }
+
+    public void setMachineId(String machineId) {
+        this.machineId = machineId;
+    }
+
+    public String getFactoryId() {
+        return factoryId;
+    }
+
+    public void setFactoryId(String factoryId) {
+        this.factoryId = factoryId;
+    }
+
+    public Instant getStart() {
+        return start;
+    }
+
+    public void setStart(Instant start) {
+        this.start = start;
+    }
+
+    public Instant getEnd() {
+        return end;
+    }
+
+    public void setEnd(Instant end) {
+        this.end = end;
+    }
+
+    public Instant getAlignedStart() {
+        return alignedStart;
+    }
+
+    public void setAlignedStart(Instant alignedStart) {
+        this.alignedStart = alignedStart;
+    }
+
+    public Instant getAlignedEnd() {
+        return alignedEnd;
+    }
+
+    public void setAlignedEnd(Instant alignedEnd) {
+        this.alignedEnd = alignedEnd;
+    }
+
+    public long getEventsCount() {
+        return eventsCount;
+    }
+
+    public void setEventsCount(long eventsCount) {
+        this.eventsCount = eventsCount;
+    }
+
+    public long getDefectsCount() {
+        return defectsCount;
+    }
+
+    public void setDefectsCount(long defectsCount) {
+        this.defectsCount = defectsCount;
+    }
+
+    public double getAvgDefectRate() {
+        return avgDefectRate;
+    }
+
+    public void setAvgDefectRate(double avgDefectRate) {
+        this.avgDefectRate = avgDefectRate;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public long getDistinctMachines() {
+        return distinctMachines;
+    }
+
+    public void setDistinctMachines(long distinctMachines) {
+        this.distinctMachines = distinctMachines;
+    }
+
+    public double getDistinctMachinesRelativeError() {
+        return distinctMachinesRelativeError;
+    }
+
+    public void setDistinctMachinesRelativeError(double distinctMachinesRelativeError) {
+        this.distinctMachinesRelativeError = distinctMachinesRelativeError;
+    }
+
+    public long getDurationP50Ms() {
+        return durationP50Ms;
+    }
+
+    public void setDurationP50Ms(long durationP50Ms) {
+        this.durationP50Ms = durationP50Ms;
+    }
+
+    public long getDurationP95Ms() {
+        return durationP95Ms;
+    }
+
+    public void setDurationP95Ms(long durationP95Ms) {
+        this.durationP95Ms = durationP95Ms;
+    }
+
+    public long getDurationP99Ms() {
+        return durationP99Ms;
+    }
+
+    public void setDurationP99Ms(long durationP99Ms) {
+        this.durationP99Ms = durationP99Ms;
+    }
+
+    public double getDurationRelativeError() {
+        return durationRelativeError;
+    }
+
+    public void setDurationRelativeError(double durationRelativeError) {
+        this.durationRelativeError = durationRelativeError;
+    }
+}
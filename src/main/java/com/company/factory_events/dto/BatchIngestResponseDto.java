@@ -17,6 +17,10 @@ public class BatchIngestResponseDto {
         private String eventId;
         private String reason;
 
+        private Rejection() {
+            // for JSON deserialization of responses forwarded between nodes
+        }
+
         public Rejection(String eventId, String reason) {
             this.eventId = eventId;
             this.reason = reason;
@@ -0,0 +1,70 @@
+package com.company.factory_events.dto;
+
+import java.time.Instant;
+
+public class EventChangeDto {
+
+    private String offset;
+    private String eventId;
+    private String machineId;
+    private String outcome;
+    private Integer oldDefectCount;
+    private int newDefectCount;
+    private Instant changedAt;
+
+    public String getOffset() {
+        return offset;
+    }
+
+    public void setOffset(String offset) {
+        this.offset = offset;
+    }
+
+    public String getEventId() {
+        return eventId;
+    }
+
+    public void setEventId(String eventId) {
+        this.eventId = eventId;
+    }
+
+    public String getMachineId() {
+        return machineId;
+    }
+
+    public void setMachineId(String machineId) {
+        this.machineId = machineId;
+    }
+
+    public String getOutcome() {
+        return outcome;
+    }
+
+    public void setOutcome(String outcome) {
+        this.outcome = outcome;
+    }
+
+    public Integer getOldDefectCount() {
+        return oldDefectCount;
+    }
+
+    public void setOldDefectCount(Integer oldDefectCount) {
+        this.oldDefectCount = oldDefectCount;
+    }
+
+    public int getNewDefectCount() {
+        return newDefectCount;
+    }
+
+    public void setNewDefectCount(int newDefectCount) {
+        this.newDefectCount = newDefectCount;
+    }
+
+    public Instant getChangedAt() {
+        return changedAt;
+    }
+
+    public void setChangedAt(Instant changedAt) {
+        this.changedAt = changedAt;
+    }
+}
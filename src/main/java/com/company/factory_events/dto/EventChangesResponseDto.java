@@ -0,0 +1,28 @@
+package com.company.factory_events.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class EventChangesResponseDto {
+
+    private List<EventChangeDto> changes = new ArrayList<>();
+
+    /** Pass as {@code after} on the next poll; unchanged when nothing new was found. */
+    private String nextOffset;
+
+    public List<EventChangeDto> getChanges() {
+        return changes;
+    }
+
+    public void setChanges(List<EventChangeDto> changes) {
+        this.changes = changes;
+    }
+
+    public String getNextOffset() {
+        return nextOffset;
+    }
+
+    public void setNextOffset(String nextOffset) {
+        this.nextOffset = nextOffset;
+    }
+}
@@ -0,0 +1,90 @@
+package com.company.factory_events.dto;
+
+import java.time.Instant;
+
+public class EventExportDto {
+
+    private String eventId;
+    private String machineId;
+    private Instant eventTime;
+    private Instant receivedTime;
+    private long durationMs;
+    private int defectCount;
+    private String factoryId;
+    private String lineId;
+
+    /** Pass as {@code after} to resume the export right after this event. */
+    private String cursor;
+
+    public String getEventId() {
+        return eventId;
+    }
+
+    public void setEventId(String eventId) {
+        this.eventId = eventId;
+    }
+
+    public String getMachineId() {
+        return machineId;
+    }
+
+    public void setMachineId(String machineId) {
+        this.machineId = machineId;
+    }
+
+    public Instant getEventTime() {
+        return eventTime;
+    }
+
+    public void setEventTime(Instant eventTime) {
+        this.eventTime = eventTime;
+    }
+
+    public Instant getReceivedTime() {
+        return receivedTime;
+    }
+
+    public void setReceivedTime(Instant receivedTime) {
+        this.receivedTime = receivedTime;
+    }
+
+    public long getDurationMs() {
+        return durationMs;
+    }
+
+    public void setDurationMs(long durationMs) {
+        this.durationMs = durationMs;
+    }
+
+    public int getDefectCount() {
+        return defectCount;
+    }
+
+    public void setDefectCount(int defectCount) {
+        this.defectCount = defectCount;
+    }
+
+    public String getFactoryId() {
+        return factoryId;
+    }
+
+    public void setFactoryId(String factoryId) {
+        this.factoryId = factoryId;
+    }
+
+    public String getLineId() {
+        return lineId;
+    }
+
+    public void setLineId(String lineId) {
+        this.lineId = lineId;
+    }
+
+    public String getCursor() {
+        return cursor;
+    }
+
+    public void setCursor(String cursor) {
+        this.cursor = cursor;
+    }
+}
@@ -13,6 +13,10 @@ public class StatsResponseDto {
     private double avgDefectRate;
     private String status;
 
+    private long durationP50Ms;
+    private long durationP95Ms;
+    private long durationP99Ms;
+
     public String getMachineId() {
         return machineId;
     }
@@ -68,5 +72,28 @@ public class StatsResponseDto {
     public void setStatus(String status) {
         this.status = status;
     }
-}
 
+    public long getDurationP50Ms() {
+        return durationP50Ms;
+    }
+
+    public void setDurationP50Ms(long durationP50Ms) {
+        this.durationP50Ms = durationP50Ms;
+    }
+
+    public long getDurationP95Ms() {
+        return durationP95Ms;
+    }
+
+    public void setDurationP95Ms(long durationP95Ms) {
+        this.durationP95Ms = durationP95Ms;
+    }
+
+    public long getDurationP99Ms() {
+        return durationP99Ms;
+    }
+
+    public void setDurationP99Ms(long durationP99Ms) {
+        this.durationP99Ms = durationP99Ms;
+    }
+}
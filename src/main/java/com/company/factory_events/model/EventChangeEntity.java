@@ -0,0 +1,175 @@
+package com.company.factory_events.model;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+@Entity
+@Table(name = "event_changes")
+public class EventChangeEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    /**
+     * Id of the writing transaction, filled in by the database. Changes are
+     * ordered by (tx_id, id) so a poll never passes a transaction that has
+     * not committed yet.
+     */
+    @Column(name = "tx_id", insertable = false, updatable = false,
+            columnDefinition = "BIGINT NOT NULL DEFAULT (pg_current_xact_id()::text::bigint)")
+    private Long txId;
+
+    @Column(name = "event_id", nullable = false)
+    private String eventId;
+
+    @Column(name = "machine_id", nullable = false)
+    private String machineId;
+
+    @Column(name = "factory_id", length = 32)
+    private String factoryId;
+
+    @Column(name = "event_time")
+    private Instant eventTime;
+
+    @Column(name = "duration_ms")
+    private Long durationMs;
+
+    @Column(name = "outcome", nullable = false, length = 16)
+    private String outcome;
+
+    @Column(name = "old_machine_id")
+    private String oldMachineId;
+
+    @Column(name = "old_factory_id", length = 32)
+    private String oldFactoryId;
+
+    @Column(name = "old_event_time")
+    private Instant oldEventTime;
+
+    @Column(name = "old_duration_ms")
+    private Long oldDurationMs;
+
+    @Column(name = "old_defect_count")
+    private Integer oldDefectCount;
+
+    @Column(name = "new_defect_count", nullable = false)
+    private int newDefectCount;
+
+    @Column(name = "changed_at", nullable = false)
+    private Instant changedAt;
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getTxId() {
+        return txId;
+    }
+
+    public String getEventId() {
+        return eventId;
+    }
+
+    public void setEventId(String eventId) {
+        this.eventId = eventId;
+    }
+
+    public String getMachineId() {
+        return machineId;
+    }
+
+    public void setMachineId(String machineId) {
+        this.machineId = machineId;
+    }
+
+    public String getFactoryId() {
+        return factoryId;
+    }
+
+    public void setFactoryId(String factoryId) {
+        this.factoryId = factoryId;
+    }
+
+    public Instant getEventTime() {
+        return eventTime;
+    }
+
+    public void setEventTime(Instant eventTime) {
+        this.eventTime = eventTime;
+    }
+
+    public Long getDurationMs() {
+        return durationMs;
+    }
+
+    public void setDurationMs(Long durationMs) {
+        this.durationMs = durationMs;
+    }
+
+    public String getOutcome() {
+        return outcome;
+    }
+
+    public void setOutcome(String outcome) {
+        this.outcome = outcome;
+    }
+
+    public String getOldMachineId() {
+        return oldMachineId;
+    }
+
+    public void setOldMachineId(String oldMachineId) {
+        this.oldMachineId = oldMachineId;
+    }
+
+    public String getOldFactoryId() {
+        return oldFactoryId;
+    }
+
+    public void setOldFactoryId(String oldFactoryId) {
+        this.oldFactoryId = oldFactoryId;
+    }
+
+    public Instant getOldEventTime() {
+        return oldEventTime;
+    }
+
+    public void setOldEventTime(Instant oldEventTime) {
+        this.oldEventTime = oldEventTime;
+    }
+
+    public Long getOldDurationMs() {
+        return oldDurationMs;
+    }
+
+    public void setOldDurationMs(Long oldDurationMs) {
+        this.oldDurationMs = oldDurationMs;
+    }
+
+    public Integer getOldDefectCount() {
+        return oldDefectCount;
+    }
+
+    public void setOldDefectCount(Integer oldDefectCount) {
+        this.oldDefectCount = oldDefectCount;
+    }
+
+    public int getNewDefectCount() {
+        return newDefectCount;
+    }
+
+    public void setNewDefectCount(int newDefectCount) {
+        this.newDefectCount = newDefectCount;
+    }
+
+    public Instant getChangedAt() {
+        return changedAt;
+    }
+
+    public void setChangedAt(Instant changedAt) {
+        this.changedAt = changedAt;
+    }
+}
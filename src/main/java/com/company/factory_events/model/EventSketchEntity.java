@@ -0,0 +1,63 @@
+package com.company.factory_events.model;
+
+import jakarta.persistence.*;
+
+@Entity
+@Table(name = "event_sketches")
+public class EventSketchEntity {
+
+    @EmbeddedId
+    private EventSketchId id;
+
+    @Column(name = "events_count", nullable = false)
+    private long eventsCount;
+
+    @Column(name = "defects_count", nullable = false)
+    private long defectsCount;
+
+    @Column(name = "duration_histogram", nullable = false, columnDefinition = "bytea")
+    private byte[] durationHistogram;
+
+    @Column(name = "machines_hll", columnDefinition = "bytea")
+    private byte[] machinesHll;
+
+    public EventSketchId getId() {
+        return id;
+    }
+
+    public void setId(EventSketchId id) {
+        this.id = id;
+    }
+
+    public long getEventsCount() {
+        return eventsCount;
+    }
+
+    public void setEventsCount(long eventsCount) {
+        this.eventsCount = eventsCount;
+    }
+
+    public long getDefectsCount() {
+        return defectsCount;
+    }
+
+    public void setDefectsCount(long defectsCount) {
+        this.defectsCount = defectsCount;
+    }
+
+    public byte[] getDurationHistogram() {
+        return durationHistogram;
+    }
+
+    public void setDurationHistogram(byte[] durationHistogram) {
+        this.durationHistogram = durationHistogram;
+    }
+
+    public byte[] getMachinesHll() {
+        return machinesHll;
+    }
+
+    public void setMachinesHll(byte[] machinesHll) {
+        this.machinesHll = machinesHll;
+    }
+}
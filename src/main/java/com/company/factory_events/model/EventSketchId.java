@@ -0,0 +1,80 @@
+package com.company.factory_events.model;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.Objects;
+
+@Embeddable
+public class EventSketchId implements Serializable {
+
+    public enum Scope {
+        MACHINE,
+        FACTORY
+    }
+
+    public enum Granularity {
+        HOUR,
+        DAY
+    }
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "scope", nullable = false, length = 16)
+    private Scope scope;
+
+    @Column(name = "scope_id", nullable = false, length = 64)
+    private String scopeId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "granularity", nullable = false, length = 8)
+    private Granularity granularity;
+
+    @Column(name = "bucket_start", nullable = false)
+    private Instant bucketStart;
+
+    protected EventSketchId() {
+    }
+
+    public EventSketchId(Scope scope, String scopeId, Granularity granularity, Instant bucketStart) {
+        this.scope = scope;
+        this.scopeId = scopeId;
+        this.granularity = granularity;
+        this.bucketStart = bucketStart;
+    }
+
+    public Scope getScope() {
+        return scope;
+    }
+
+    public String getScopeId() {
+        return scopeId;
+    }
+
+    public Granularity getGranularity() {
+        return granularity;
+    }
+
+    public Instant getBucketStart() {
+        return bucketStart;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof EventSketchId other)) {
+            return false;
+        }
+        return scope == other.scope
+                && granularity == other.granularity
+                && scopeId.equals(other.scopeId)
+                && bucketStart.equals(other.bucketStart);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(scope, scopeId, granularity, bucketStart);
+    }
+}
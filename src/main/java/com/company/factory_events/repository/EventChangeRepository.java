@@ -0,0 +1,43 @@
+package com.company.factory_events.repository;
+
+import com.company.factory_events.model.EventChangeEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface EventChangeRepository extends JpaRepository<EventChangeEntity, Long> {
+
+    /**
+     * Changes after the given position, limited to transactions older than
+     * every transaction still in flight, so later polls cannot find a change
+     * that sorts before one already returned.
+     */
+    @Query(nativeQuery = true, value = """
+            SELECT * FROM event_changes
+            WHERE (tx_id, id) > (:afterTxId, :afterId)
+              AND tx_id < CAST(CAST(pg_snapshot_xmin(pg_current_snapshot()) AS text) AS bigint)
+            ORDER BY tx_id, id
+            LIMIT :limit
+            """)
+    List<EventChangeEntity> findCommittedAfter(@Param("afterTxId") long afterTxId,
+                                               @Param("afterId") long afterId,
+                                               @Param("limit") int limit);
+
+    /**
+     * Purges changes older than the given time that the sketch maintainer has
+     * already applied.
+     */
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            DELETE FROM event_changes c
+            USING sketch_progress p
+            WHERE p.id = 1
+              AND c.changed_at < :before
+              AND (c.tx_id, c.id) <= (p.tx_id, p.change_id)
+            """)
+    int deleteChangedBefore(@Param("before") Instant before);
+}
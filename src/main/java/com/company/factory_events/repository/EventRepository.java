@@ -1,15 +1,56 @@
 package com.company.factory_events.repository;
 
 import com.company.factory_events.model.EventEntity;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.time.Instant;
 import java.util.List;
+import java.util.Optional;
 
 public interface EventRepository extends JpaRepository<EventEntity,String> {
+
+    /**
+     * Locks the row until the transaction ends, so concurrent writes to the
+     * same eventId are judged one after another against the latest row.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select e from EventEntity e where e.eventId = :eventId")
+    Optional<EventEntity> findForUpdate(@Param("eventId") String eventId);
+
     List<EventEntity> findByMachineIdAndEventTimeGreaterThanEqualAndEventTimeLessThan(
             String machineId,
             Instant start,
             Instant end
     );
+
+    long countByMachineIdAndEventTimeGreaterThanEqualAndEventTimeLessThan(
+            String machineId,
+            Instant start,
+            Instant end
+    );
+
+    @Query("""
+            select coalesce(sum(e.defectCount), 0) from EventEntity e
+            where e.machineId = :machineId
+              and e.eventTime >= :start
+              and e.eventTime < :end
+              and e.defectCount <> -1
+            """)
+    long sumDefects(@Param("machineId") String machineId,
+                    @Param("start") Instant start,
+                    @Param("end") Instant end);
+
+    @Query("""
+            select e.durationMs from EventEntity e
+            where e.machineId = :machineId
+              and e.eventTime >= :start
+              and e.eventTime < :end
+            """)
+    List<Long> findDurations(@Param("machineId") String machineId,
+                             @Param("start") Instant start,
+                             @Param("end") Instant end);
 }
@@ -0,0 +1,47 @@
+package com.company.factory_events.repository;
+
+import com.company.factory_events.model.EventSketchEntity;
+import com.company.factory_events.model.EventSketchId;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+public interface EventSketchRepository extends JpaRepository<EventSketchEntity, EventSketchId> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from EventSketchEntity s where s.id = :id")
+    Optional<EventSketchEntity> findForUpdate(@Param("id") EventSketchId id);
+
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            INSERT INTO event_sketches (scope, scope_id, granularity, bucket_start,
+                                        events_count, defects_count, duration_histogram)
+            VALUES (:scope, :scopeId, :granularity, :bucketStart, 0, 0, decode('', 'hex'))
+            ON CONFLICT DO NOTHING
+            """)
+    int insertEmptyIfAbsent(@Param("scope") String scope,
+                            @Param("scopeId") String scopeId,
+                            @Param("granularity") String granularity,
+                            @Param("bucketStart") Instant bucketStart);
+
+    @Query("""
+            select s from EventSketchEntity s
+            where s.id.scope = :scope
+              and s.id.scopeId = :scopeId
+              and s.id.granularity = :granularity
+              and s.id.bucketStart >= :start
+              and s.id.bucketStart < :end
+            """)
+    List<EventSketchEntity> findBuckets(@Param("scope") EventSketchId.Scope scope,
+                                        @Param("scopeId") String scopeId,
+                                        @Param("granularity") EventSketchId.Granularity granularity,
+                                        @Param("start") Instant start,
+                                        @Param("end") Instant end);
+}
@@ -0,0 +1,417 @@
+package com.company.factory_events.service;
+
+import com.company.factory_events.dto.BatchIngestResponseDto;
+import com.company.factory_events.dto.EventRequestDto;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.databind.ObjectMapper;
+
+import javax.sql.DataSource;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.Locale;
+
+/**
+ * Bulk loader for backfills and historical imports.
+ *
+ * The file is streamed into a temporary staging table with Postgres COPY and
+ * merged into {@code events} with set-based SQL that applies the same
+ * validation, dedupe and update rules as {@link EventIngestService}.
+ *
+ * CSV files must have a header row and the columns
+ * {@code eventId,machineId,eventTime,durationMs,defectCount,receivedTime,factoryId,lineId}.
+ * NDJSON files hold one {@link EventRequestDto} per line.
+ */
+@Service
+public class BulkLoadService {
+
+    private static final String STAGING_COLUMNS =
+            "event_id, machine_id, event_time, duration_ms, defect_count, received_time, factory_id, line_id";
+
+    private static final int COPY_BUFFER_CHARS = 64 * 1024;
+
+    /**
+     * Same format as EventIngestService#computePayloadHash, including the
+     * Instant#toString rendering of event_time and "null" for missing ids.
+     */
+    private static final String PAYLOAD_HASH_SQL = """
+            event_id
+                || '|' || machine_id
+                || '|' || to_char(event_time AT TIME ZONE 'UTC', 'YYYY-MM-DD"T"HH24:MI:SS')
+                || CASE
+                       WHEN to_char(event_time AT TIME ZONE 'UTC', 'US') = '000000' THEN ''
+                       WHEN right(to_char(event_time AT TIME ZONE 'UTC', 'US'), 3) = '000'
+                           THEN '.' || to_char(event_time AT TIME ZONE 'UTC', 'MS')
+                       ELSE '.' || to_char(event_time AT TIME ZONE 'UTC', 'US')
+                   END || 'Z'
+                || '|' || duration_ms
+                || '|' || defect_count
+                || '|' || coalesce(factory_id, 'null')
+                || '|' || coalesce(line_id, 'null')
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSource dataSource;
+    private final ObjectMapper objectMapper;
+    private final int maxReportedRejections;
+
+    public BulkLoadService(JdbcTemplate jdbcTemplate,
+                           DataSource dataSource,
+                           ObjectMapper objectMapper,
+                           @Value("${bulk-load.max-reported-rejections:1000}") int maxReportedRejections) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dataSource = dataSource;
+        this.objectMapper = objectMapper;
+        this.maxReportedRejections = maxReportedRejections;
+    }
+
+    @Transactional
+    public BatchIngestResponseDto load(InputStream input, Format format) {
+
+        createStagingTable();
+        copyIntoStaging(input, format);
+        prepareStaging();
+
+        int rounds = jdbcTemplate.queryForObject(
+                "SELECT coalesce(max(occurrence), 0) FROM events_staging", Integer.class);
+
+        for (int round = 1; round <= rounds; round++) {
+            mergeRound(round);
+        }
+
+        return report();
+    }
+
+    private void createStagingTable() {
+        // Dropped on commit; a second load in the same transaction starts fresh.
+        jdbcTemplate.execute("DROP TABLE IF EXISTS events_staging");
+        jdbcTemplate.execute("""
+                CREATE TEMP TABLE events_staging (
+                    line_no         BIGSERIAL,
+                    event_id        VARCHAR(64),
+                    machine_id      VARCHAR(64),
+                    event_time      TIMESTAMPTZ,
+                    duration_ms     BIGINT,
+                    defect_count    INT,
+                    received_time   TIMESTAMPTZ,
+                    factory_id      VARCHAR(32),
+                    line_id         VARCHAR(32),
+                    payload_hash    TEXT,
+                    old_machine_id  VARCHAR(64),
+                    old_factory_id  VARCHAR(32),
+                    old_event_time  TIMESTAMPTZ,
+                    old_duration_ms BIGINT,
+                    old_defect_count INT,
+                    occurrence      INT,
+                    attempt         INT,
+                    outcome         VARCHAR(16),
+                    reason          VARCHAR(64)
+                ) ON COMMIT DROP
+                """);
+    }
+
+    private void copyIntoStaging(InputStream input, Format format) {
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try {
+            CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+            BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(input, StandardCharsets.UTF_8));
+
+            switch (format) {
+                case CSV -> copyManager.copyIn(
+                        "COPY events_staging (" + STAGING_COLUMNS + ") FROM STDIN WITH (FORMAT csv, HEADER true)",
+                        reader);
+                case NDJSON -> copyNdjson(copyManager, reader);
+            }
+        } catch (SQLException ex) {
+            throw new IllegalArgumentException("BULK_LOAD_COPY_FAILED: " + ex.getMessage(), ex);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    /**
+     * Re-encodes NDJSON as CSV rows on the fly so both formats share one COPY path.
+     */
+    private void copyNdjson(CopyManager copyManager, BufferedReader reader)
+            throws SQLException, IOException {
+
+        CopyIn copyIn = copyManager.copyIn(
+                "COPY events_staging (" + STAGING_COLUMNS + ") FROM STDIN WITH (FORMAT csv)");
+        try {
+            StringBuilder buffer = new StringBuilder(COPY_BUFFER_CHARS + 1024);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                appendCsvRow(buffer, objectMapper.readValue(line, EventRequestDto.class));
+                if (buffer.length() >= COPY_BUFFER_CHARS) {
+                    writeToCopy(copyIn, buffer);
+                }
+            }
+            writeToCopy(copyIn, buffer);
+            copyIn.endCopy();
+        } finally {
+            if (copyIn.isActive()) {
+                copyIn.cancelCopy();
+            }
+        }
+    }
+
+    private void writeToCopy(CopyIn copyIn, StringBuilder buffer) throws SQLException {
+        if (buffer.isEmpty()) {
+            return;
+        }
+        byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+        copyIn.writeToCopy(bytes, 0, bytes.length);
+        buffer.setLength(0);
+    }
+
+    private void appendCsvRow(StringBuilder buffer, EventRequestDto dto) {
+        appendCsvField(buffer, dto.getEventId()).append(',');
+        appendCsvField(buffer, dto.getMachineId()).append(',');
+        appendCsvField(buffer, dto.getEventTime()).append(',');
+        buffer.append(dto.getDurationMs()).append(',');
+        buffer.append(dto.getDefectCount()).append(',');
+        appendCsvField(buffer, dto.getReceivedTime()).append(',');
+        appendCsvField(buffer, dto.getFactoryId()).append(',');
+        appendCsvField(buffer, dto.getLineId()).append('\n');
+    }
+
+    private StringBuilder appendCsvField(StringBuilder buffer, Instant value) {
+        return value == null ? buffer : buffer.append(value);
+    }
+
+    private StringBuilder appendCsvField(StringBuilder buffer, String value) {
+        if (value == null) {
+            return buffer;
+        }
+        return buffer.append('"').append(value.replace("\"", "\"\"")).append('"');
+    }
+
+    /**
+     * Applies the stateless rules (validation, default receivedTime, payload
+     * hash) to every staged row and numbers repeated eventIds in file order.
+     */
+    private void prepareStaging() {
+        jdbcTemplate.update("""
+                UPDATE events_staging
+                SET outcome = 'REJECTED',
+                    reason = CASE
+                        WHEN event_id IS NULL OR machine_id IS NULL OR event_time IS NULL
+                            OR duration_ms IS NULL OR defect_count IS NULL THEN 'MISSING_FIELD'
+                        WHEN duration_ms < 0 OR duration_ms > 21600000 THEN 'INVALID_DURATION'
+                        ELSE 'EVENT_TIME_IN_FUTURE'
+                    END
+                WHERE event_id IS NULL OR machine_id IS NULL OR event_time IS NULL
+                   OR duration_ms IS NULL OR defect_count IS NULL
+                   OR duration_ms < 0 OR duration_ms > 21600000
+                   OR event_time > clock_timestamp() + INTERVAL '15 minutes'
+                """);
+
+        // One microsecond apart in file order, so a repeated eventId without a
+        // receivedTime is newer than the occurrence before it, as when the
+        // same events are posted one after another.
+        jdbcTemplate.update("UPDATE events_staging SET received_time = now() + line_no * INTERVAL '1 microsecond' "
+                + "WHERE received_time IS NULL AND outcome IS NULL");
+
+        jdbcTemplate.update("UPDATE events_staging SET payload_hash = " + PAYLOAD_HASH_SQL
+                + " WHERE outcome IS NULL");
+
+        jdbcTemplate.update("""
+                UPDATE events_staging s
+                SET occurrence = o.occurrence
+                FROM (
+                    SELECT line_no,
+                           row_number() OVER (PARTITION BY event_id ORDER BY line_no) AS occurrence
+                    FROM events_staging
+                    WHERE outcome IS NULL
+                ) o
+                WHERE s.line_no = o.line_no
+                """);
+
+        jdbcTemplate.execute("CREATE INDEX ON events_staging (occurrence, event_id)");
+        jdbcTemplate.execute("ANALYZE events_staging");
+    }
+
+    /**
+     * Merges the n-th occurrence of every eventId. Running rounds in order
+     * gives repeated eventIds the same outcome as sequential ingest.
+     *
+     * Existing rows are locked before they are classified, so concurrent
+     * ingest cannot change them in between. An insert that loses to a
+     * concurrent insert of the same eventId is not counted: the row is
+     * classified again, against the row that won, until every row is settled.
+     */
+    private void mergeRound(int round) {
+
+        int attempt = 0;
+        int unsettled;
+        do {
+            attempt++;
+            lockExisting(round);
+            classify(round, attempt);
+            applyUpdates(round, attempt);
+            unsettled = insertAccepted(round, attempt);
+        } while (unsettled > 0);
+
+        jdbcTemplate.update("""
+                INSERT INTO event_changes (event_id, machine_id, factory_id, event_time, duration_ms,
+                                           outcome, old_machine_id, old_factory_id, old_event_time,
+                                           old_duration_ms, old_defect_count, new_defect_count, changed_at)
+                SELECT event_id, machine_id, factory_id, event_time, duration_ms, outcome,
+                       CASE WHEN outcome = 'UPDATED' THEN old_machine_id END,
+                       CASE WHEN outcome = 'UPDATED' THEN old_factory_id END,
+                       CASE WHEN outcome = 'UPDATED' THEN old_event_time END,
+                       CASE WHEN outcome = 'UPDATED' THEN old_duration_ms END,
+                       CASE WHEN outcome = 'UPDATED' THEN old_defect_count END,
+                       defect_count, clock_timestamp()
+                FROM events_staging
+                WHERE occurrence = ?
+                  AND outcome IN ('ACCEPTED', 'UPDATED')
+                ORDER BY line_no
+                """, round);
+    }
+
+    private void lockExisting(int round) {
+        jdbcTemplate.queryForObject("""
+                SELECT count(*) FROM (
+                    SELECT e.event_id
+                    FROM events e
+                    JOIN events_staging s ON s.event_id = e.event_id
+                    WHERE s.occurrence = ?
+                      AND s.outcome IS NULL
+                    ORDER BY e.event_id
+                    FOR UPDATE OF e
+                ) locked
+                """, Long.class, round);
+    }
+
+    private void classify(int round, int attempt) {
+        jdbcTemplate.update("""
+                UPDATE events_staging s
+                SET outcome = CASE
+                    WHEN e.event_id IS NULL THEN 'ACCEPTED'
+                    WHEN e.payload_hash = s.payload_hash THEN 'DEDUPED'
+                    WHEN s.received_time > e.received_time THEN 'UPDATED'
+                    ELSE 'IGNORED'
+                END,
+                attempt = ?,
+                old_machine_id = e.machine_id,
+                old_factory_id = e.factory_id,
+                old_event_time = e.event_time,
+                old_duration_ms = e.duration_ms,
+                old_defect_count = e.defect_count
+                FROM events_staging r
+                LEFT JOIN events e ON e.event_id = r.event_id
+                WHERE r.occurrence = ?
+                  AND r.outcome IS NULL
+                  AND s.line_no = r.line_no
+                """, attempt, round);
+    }
+
+    private void applyUpdates(int round, int attempt) {
+        jdbcTemplate.update("""
+                UPDATE events e
+                SET machine_id = s.machine_id,
+                    event_time = s.event_time,
+                    received_time = s.received_time,
+                    duration_ms = s.duration_ms,
+                    defect_count = s.defect_count,
+                    payload_hash = s.payload_hash,
+                    factory_id = s.factory_id,
+                    line_id = s.line_id
+                FROM events_staging s
+                WHERE s.occurrence = ?
+                  AND s.attempt = ?
+                  AND s.outcome = 'UPDATED'
+                  AND e.event_id = s.event_id
+                """, round, attempt);
+    }
+
+    /**
+     * Inserts the rows classified ACCEPTED in this attempt and returns them to
+     * the unclassified state if the insert did not happen; the outcome comes
+     * from {@code RETURNING}, not from the earlier classification.
+     */
+    private int insertAccepted(int round, int attempt) {
+        return jdbcTemplate.update("""
+                WITH inserted AS (
+                    INSERT INTO events (event_id, machine_id, event_time, received_time,
+                                        duration_ms, defect_count, payload_hash, factory_id, line_id)
+                    SELECT event_id, machine_id, event_time, received_time,
+                           duration_ms, defect_count, payload_hash, factory_id, line_id
+                    FROM events_staging
+                    WHERE occurrence = ?
+                      AND attempt = ?
+                      AND outcome = 'ACCEPTED'
+                    ON CONFLICT (event_id) DO NOTHING
+                    RETURNING event_id
+                )
+                UPDATE events_staging s
+                SET outcome = NULL,
+                    attempt = NULL
+                WHERE s.occurrence = ?
+                  AND s.attempt = ?
+                  AND s.outcome = 'ACCEPTED'
+                  AND NOT EXISTS (SELECT 1 FROM inserted i WHERE i.event_id = s.event_id)
+                """, round, attempt, round, attempt);
+    }
+
+    private BatchIngestResponseDto report() {
+
+        BatchIngestResponseDto response = new BatchIngestResponseDto();
+
+        jdbcTemplate.query("SELECT outcome, count(*) FROM events_staging GROUP BY outcome", rs -> {
+            int count = rs.getInt(2);
+            switch (rs.getString(1)) {
+                case "ACCEPTED" -> response.setAccepted(count);
+                case "UPDATED" -> response.setUpdated(count);
+                case "DEDUPED" -> response.setDeduped(count);
+                case "IGNORED" -> response.setIgnored(count);
+                case "REJECTED" -> response.setRejected(count);
+            }
+        });
+
+        jdbcTemplate.query("""
+                SELECT event_id, reason FROM events_staging
+                WHERE outcome = 'REJECTED'
+                ORDER BY line_no
+                LIMIT ?
+                """, rs -> {
+            response.getRejections().add(new BatchIngestResponseDto.Rejection(
+                    rs.getString(1), rs.getString(2)));
+        }, maxReportedRejections);
+
+        return response;
+    }
+
+    public enum Format {
+        CSV,
+        NDJSON;
+
+        public static Format parse(String value) {
+            try {
+                return Format.valueOf(value.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException ex) {
+                throw new IllegalArgumentException("UNSUPPORTED_FORMAT");
+            }
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.company.factory_events.service;
+
+import com.company.factory_events.dto.EventChangeDto;
+import com.company.factory_events.dto.EventChangesResponseDto;
+import com.company.factory_events.model.EventChangeEntity;
+import com.company.factory_events.model.EventEntity;
+import com.company.factory_events.repository.EventChangeRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Ordered change log of accepted and updated events.
+ *
+ * Entries are written by {@link EventIngestService} and {@link BulkLoadService}
+ * in the same transaction as the row they describe, so the log never shows a
+ * change that was rolled back and never misses one that committed.
+ * Offsets have the form {@code <txId>-<id>}; {@code 0-0} starts from the
+ * oldest retained change. {@link EventSketchService} consumes the same log,
+ * so changes it has not applied yet are kept past the retention period.
+ */
+@Service
+public class EventChangeService {
+
+    public static final String START_OFFSET = "0-0";
+
+    private final EventChangeRepository eventChangeRepository;
+    private final int maxPollSize;
+    private final Duration retention;
+
+    public EventChangeService(EventChangeRepository eventChangeRepository,
+                              @Value("${changes.max-poll-size:1000}") int maxPollSize,
+                              @Value("${changes.retention-hours:168}") long retentionHours) {
+        this.eventChangeRepository = eventChangeRepository;
+        this.maxPollSize = maxPollSize;
+        this.retention = Duration.ofHours(retentionHours);
+    }
+
+    public void recordAccepted(EventEntity event) {
+        eventChangeRepository.save(newChange(event, "ACCEPTED"));
+    }
+
+    public void recordUpdated(EventEntity previous, EventEntity updated) {
+        EventChangeEntity change = newChange(updated, "UPDATED");
+        change.setOldMachineId(previous.getMachineId());
+        change.setOldFactoryId(previous.getFactoryId());
+        change.setOldEventTime(previous.getEventTime());
+        change.setOldDurationMs(previous.getDurationMs());
+        change.setOldDefectCount(previous.getDefectCount());
+        eventChangeRepository.save(change);
+    }
+
+    private EventChangeEntity newChange(EventEntity event, String outcome) {
+        EventChangeEntity change = new EventChangeEntity();
+        change.setEventId(event.getEventId());
+        change.setMachineId(event.getMachineId());
+        change.setFactoryId(event.getFactoryId());
+        change.setEventTime(event.getEventTime());
+        change.setDurationMs(event.getDurationMs());
+        change.setOutcome(outcome);
+        change.setNewDefectCount(event.getDefectCount());
+        change.setChangedAt(Instant.now());
+        return change;
+    }
+
+    @Transactional(readOnly = true)
+    public EventChangesResponseDto poll(String after, Integer limit) {
+
+        long[] position = parseOffset(after == null ? START_OFFSET : after);
+        int size = limit == null ? maxPollSize : Math.min(Math.max(limit, 1), maxPollSize);
+
+        List<EventChangeEntity> changes =
+                eventChangeRepository.findCommittedAfter(position[0], position[1], size);
+
+        EventChangesResponseDto response = new EventChangesResponseDto();
+        String nextOffset = after == null ? START_OFFSET : after;
+
+        for (EventChangeEntity change : changes) {
+            EventChangeDto dto = new EventChangeDto();
+            dto.setOffset(change.getTxId() + "-" + change.getId());
+            dto.setEventId(change.getEventId());
+            dto.setMachineId(change.getMachineId());
+            dto.setOutcome(change.getOutcome());
+            dto.setOldDefectCount(change.getOldDefectCount());
+            dto.setNewDefectCount(change.getNewDefectCount());
+            dto.setChangedAt(change.getChangedAt());
+            response.getChanges().add(dto);
+            nextOffset = dto.getOffset();
+        }
+
+        response.setNextOffset(nextOffset);
+        return response;
+    }
+
+    @Scheduled(fixedDelayString = "${changes.purge-interval-ms:3600000}")
+    @Transactional
+    public void purgeExpired() {
+        eventChangeRepository.deleteChangedBefore(Instant.now().minus(retention));
+    }
+
+    private long[] parseOffset(String offset) {
+        int separator = offset.indexOf('-');
+        try {
+            if (separator < 0) {
+                throw new NumberFormatException();
+            }
+            return new long[] {
+                    Long.parseLong(offset.substring(0, separator)),
+                    Long.parseLong(offset.substring(separator + 1))
+            };
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("INVALID_CHANGE_OFFSET");
+        }
+    }
+}
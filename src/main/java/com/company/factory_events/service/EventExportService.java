@@ -0,0 +1,201 @@
+package com.company.factory_events.service;
+
+import com.company.factory_events.dto.EventExportDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Streams events as NDJSON in (event_time, event_id) order using keyset
+ * pagination, so every page is an index range scan of the same cost no
+ * matter how deep the export is. Each page runs in its own short read-only
+ * transaction on the stats pool and is written out before the next is read.
+ */
+@Service
+public class EventExportService {
+
+    private static final byte[] NEWLINE = "\n".getBytes(StandardCharsets.UTF_8);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectMapper objectMapper;
+    private final int defaultPageSize;
+    private final int maxPageSize;
+
+    public EventExportService(JdbcTemplate jdbcTemplate,
+                              PlatformTransactionManager transactionManager,
+                              ObjectMapper objectMapper,
+                              @Value("${export.page-size:1000}") int defaultPageSize,
+                              @Value("${export.max-page-size:10000}") int maxPageSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.objectMapper = objectMapper;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
+    }
+
+    /**
+     * @param after   cursor of the last event already received, or null
+     * @param limit   maximum number of events to write, or null for all
+     */
+    public void export(String machineId,
+                       String lineId,
+                       Instant start,
+                       Instant end,
+                       String after,
+                       Integer pageSize,
+                       Long limit,
+                       OutputStream out) {
+
+        validate(start, end, after);
+
+        int size = pageSize == null ? defaultPageSize : Math.min(Math.max(pageSize, 1), maxPageSize);
+        long remaining = limit == null ? Long.MAX_VALUE : limit;
+        Cursor cursor = after == null ? null : Cursor.decode(after);
+
+        while (remaining > 0) {
+            int pageLimit = (int) Math.min(size, remaining);
+            Cursor from = cursor;
+            List<EventExportDto> page = readOnlyTransaction.execute(
+                    status -> readPage(machineId, lineId, start, end, from, pageLimit));
+
+            for (EventExportDto event : page) {
+                write(out, event);
+            }
+            flush(out);
+
+            if (page.size() < pageLimit) {
+                return;
+            }
+
+            EventExportDto last = page.get(page.size() - 1);
+            cursor = new Cursor(last.getEventTime(), last.getEventId());
+            remaining -= page.size();
+        }
+    }
+
+    /**
+     * Checks the request up front so bad parameters fail before the response
+     * is committed and streaming starts.
+     */
+    public void validate(Instant start, Instant end, String after) {
+        if (start != null && end != null && !start.isBefore(end)) {
+            throw new IllegalArgumentException("INVALID_TIME_WINDOW");
+        }
+        if (after != null) {
+            Cursor.decode(after);
+        }
+    }
+
+    private List<EventExportDto> readPage(String machineId,
+                                          String lineId,
+                                          Instant start,
+                                          Instant end,
+                                          Cursor after,
+                                          int pageLimit) {
+
+        StringBuilder sql = new StringBuilder("""
+                SELECT event_id, machine_id, event_time, received_time,
+                       duration_ms, defect_count, factory_id, line_id
+                FROM events
+                WHERE 1 = 1
+                """);
+        List<Object> args = new ArrayList<>();
+
+        if (machineId != null) {
+            sql.append(" AND machine_id = ?");
+            args.add(machineId);
+        }
+        if (lineId != null) {
+            sql.append(" AND line_id = ?");
+            args.add(lineId);
+        }
+        if (start != null) {
+            sql.append(" AND event_time >= ?");
+            args.add(Timestamp.from(start));
+        }
+        if (end != null) {
+            sql.append(" AND event_time < ?");
+            args.add(Timestamp.from(end));
+        }
+        if (after != null) {
+            sql.append(" AND (event_time, event_id) > (?, ?)");
+            args.add(Timestamp.from(after.eventTime()));
+            args.add(after.eventId());
+        }
+        sql.append(" ORDER BY event_time, event_id LIMIT ?");
+        args.add(pageLimit);
+
+        return jdbcTemplate.query(sql.toString(), (rs, rowNum) -> {
+            EventExportDto dto = new EventExportDto();
+            dto.setEventId(rs.getString("event_id"));
+            dto.setMachineId(rs.getString("machine_id"));
+            dto.setEventTime(rs.getTimestamp("event_time").toInstant());
+            dto.setReceivedTime(rs.getTimestamp("received_time").toInstant());
+            dto.setDurationMs(rs.getLong("duration_ms"));
+            dto.setDefectCount(rs.getInt("defect_count"));
+            dto.setFactoryId(rs.getString("factory_id"));
+            dto.setLineId(rs.getString("line_id"));
+            dto.setCursor(new Cursor(dto.getEventTime(), dto.getEventId()).encode());
+            return dto;
+        }, args.toArray());
+    }
+
+    private void write(OutputStream out, EventExportDto event) {
+        try {
+            out.write(objectMapper.writeValueAsBytes(event));
+            out.write(NEWLINE);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private void flush(OutputStream out) {
+        try {
+            out.flush();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * Opaque resume token: base64url of "eventTime|eventId".
+     */
+    record Cursor(Instant eventTime, String eventId) {
+
+        String encode() {
+            return Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString((eventTime + "|" + eventId).getBytes(StandardCharsets.UTF_8));
+        }
+
+        static Cursor decode(String token) {
+            try {
+                String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+                int separator = value.indexOf('|');
+                if (separator < 0) {
+                    throw new IllegalArgumentException("INVALID_EXPORT_CURSOR");
+                }
+                return new Cursor(
+                        Instant.parse(value.substring(0, separator)),
+                        value.substring(separator + 1));
+            } catch (IllegalArgumentException | DateTimeParseException ex) {
+                throw new IllegalArgumentException("INVALID_EXPORT_CURSOR");
+            }
+        }
+    }
+}
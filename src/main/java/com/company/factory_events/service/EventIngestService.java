@@ -5,50 +5,191 @@ import com.company.factory_events.dto.BatchIngestResponseDto;
 import com.company.factory_events.dto.EventRequestDto;
 import com.company.factory_events.model.EventEntity;
 import com.company.factory_events.repository.EventRepository;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 @Service
 public class EventIngestService {
 
     private final EventRepository eventRepository;
-
-    public EventIngestService(EventRepository eventRepository) {
+    private final EventChangeService eventChangeService;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService ingestExecutor;
+    private final int parallelism;
+    private final int minChunkSize;
+
+    public EventIngestService(EventRepository eventRepository,
+                              EventChangeService eventChangeService,
+                              TransactionTemplate transactionTemplate,
+                              @Qualifier("ingestExecutor") ExecutorService ingestExecutor,
+                              @Value("${ingest.parallelism:${spring.datasource.hikari.maximum-pool-size:10}}") int parallelism,
+                              @Value("${ingest.min-chunk-size:100}") int minChunkSize) {
         this.eventRepository = eventRepository;
+        this.eventChangeService = eventChangeService;
+        this.transactionTemplate = transactionTemplate;
+        this.ingestExecutor = ingestExecutor;
+        this.parallelism = parallelism;
+        this.minChunkSize = minChunkSize;
     }
 
     public BatchIngestResponseDto ingestBatch(List<EventRequestDto> events) {
 
-        BatchIngestResponseDto response = new BatchIngestResponseDto();
+        IngestResult[] results = new IngestResult[events.size()];
+        String[] reasons = new String[events.size()];
+
+        List<List<Integer>> chunks = partition(events);
+
+        if (chunks.size() <= 1) {
+            for (List<Integer> chunk : chunks) {
+                ingestChunk(events, chunk, results, reasons);
+            }
+        } else {
+            List<Future<?>> futures = new ArrayList<>(chunks.size());
+            for (List<Integer> chunk : chunks) {
+                futures.add(ingestExecutor.submit(
+                        () -> ingestChunk(events, chunk, results, reasons)));
+            }
+            awaitAll(futures);
+        }
+
+        return merge(events, results, reasons);
+    }
+
+    /**
+     * Splits the batch into at most {@code parallelism} chunks of event indexes.
+     * All occurrences of one eventId land in the same chunk in their original
+     * order, so the outcome per eventId is the same as sequential processing.
+     */
+    private List<List<Integer>> partition(List<EventRequestDto> events) {
+
+        int chunkCount = Math.min(parallelism,
+                (events.size() + minChunkSize - 1) / minChunkSize);
+
+        if (chunkCount <= 1) {
+            List<Integer> all = new ArrayList<>(events.size());
+            for (int i = 0; i < events.size(); i++) {
+                all.add(i);
+            }
+            return List.of(all);
+        }
+
+        Map<Object, List<Integer>> byEventId = new LinkedHashMap<>();
+        for (int i = 0; i < events.size(); i++) {
+            String eventId = events.get(i).getEventId();
+            Object key = eventId != null ? eventId : i;
+            byEventId.computeIfAbsent(key, k -> new ArrayList<>()).add(i);
+        }
+
+        List<List<Integer>> chunks = new ArrayList<>(chunkCount);
+        for (int c = 0; c < chunkCount; c++) {
+            chunks.add(new ArrayList<>());
+        }
+
+        int next = 0;
+        for (List<Integer> group : byEventId.values()) {
+            chunks.get(next).addAll(group);
+            next = (next + 1) % chunkCount;
+        }
+
+        for (List<Integer> chunk : chunks) {
+            Collections.sort(chunk);
+        }
+        chunks.removeIf(List::isEmpty);
+
+        return chunks;
+    }
+
+    private void ingestChunk(List<EventRequestDto> events,
+                             List<Integer> chunk,
+                             IngestResult[] results,
+                             String[] reasons) {
 
-        for (EventRequestDto dto : events) {
+        for (int index : chunk) {
             try {
-                IngestResult result = ingestSingle(dto);
+                EventRequestDto dto = events.get(index);
+                try {
+                    results[index] = transactionTemplate.execute(status -> ingestSingle(dto));
+                } catch (DataIntegrityViolationException ex) {
+                    // A concurrent request inserted the same eventId first;
+                    // judge this one against the row it wrote.
+                    results[index] = transactionTemplate.execute(status -> ingestSingle(dto));
+                }
+            } catch (IllegalArgumentException ex) {
+                results[index] = IngestResult.REJECTED;
+                reasons[index] = ex.getMessage();
+            }
+        }
+    }
+
+    private void awaitAll(List<Future<?>> futures) {
+        RuntimeException failure = null;
 
-                switch (result) {
-                    case ACCEPTED -> response.setAccepted(response.getAccepted() + 1);
-                    case UPDATED -> response.setUpdated(response.getUpdated() + 1);
-                    case DEDUPED -> response.setDeduped(response.getDeduped() + 1);
-                    case IGNORED -> response.setIgnored(response.getDeduped() + 1);
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Batch ingest interrupted", ex);
+            } catch (ExecutionException ex) {
+                if (failure == null) {
+                    failure = ex.getCause() instanceof RuntimeException runtime
+                            ? runtime
+                            : new IllegalStateException(ex.getCause());
                 }
+            }
+        }
 
-            } catch (IllegalArgumentException ex) {
-                response.setRejected(response.getRejected() + 1);
-                response.getRejections()
-                        .add(new BatchIngestResponseDto.Rejection(
-                                dto.getEventId(),
-                                ex.getMessage()
-                        ));
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private BatchIngestResponseDto merge(List<EventRequestDto> events,
+                                         IngestResult[] results,
+                                         String[] reasons) {
+
+        BatchIngestResponseDto response = new BatchIngestResponseDto();
+
+        for (int i = 0; i < results.length; i++) {
+            switch (results[i]) {
+                case ACCEPTED -> response.setAccepted(response.getAccepted() + 1);
+                case UPDATED -> response.setUpdated(response.getUpdated() + 1);
+                case DEDUPED -> response.setDeduped(response.getDeduped() + 1);
+                case IGNORED -> response.setIgnored(response.getIgnored() + 1);
+                case REJECTED -> {
+                    response.setRejected(response.getRejected() + 1);
+                    response.getRejections()
+                            .add(new BatchIngestResponseDto.Rejection(
+                                    events.get(i).getEventId(),
+                                    reasons[i]
+                            ));
+                }
             }
         }
 
         return response;
     }
 
-    @Transactional
+    /**
+     * Runs inside the read-write transaction opened by {@link #ingestChunk}, so
+     * the existence check, the write and its change-log entry use the same
+     * primary connection and commit together. The existing row is locked, so
+     * a concurrent request for the same eventId waits and is then judged
+     * against this one's result.
+     */
     protected IngestResult ingestSingle(EventRequestDto dto) {
 
         validate(dto);
@@ -59,7 +200,7 @@ public class EventIngestService {
 
         String payloadHash = computePayloadHash(dto);
 
-        return eventRepository.findById(dto.getEventId())
+        return eventRepository.findForUpdate(dto.getEventId())
                 .map(existing -> {
 
                     if (existing.getPayloadHash().equals(payloadHash)) {
@@ -67,6 +208,8 @@ public class EventIngestService {
                     }
 
                     if (receivedTime.isAfter(existing.getReceivedTime())) {
+                        EventEntity previous = snapshot(existing);
+
                         existing.setMachineId(dto.getMachineId());
                         existing.setEventTime(dto.getEventTime());
                         existing.setReceivedTime(receivedTime);
@@ -77,6 +220,7 @@ public class EventIngestService {
                         existing.setLineId(dto.getLineId());
 
                         eventRepository.save(existing);
+                        eventChangeService.recordUpdated(previous, existing);
                         return IngestResult.UPDATED;
                     }
 
@@ -85,7 +229,10 @@ public class EventIngestService {
                 })
                 .orElseGet(() -> {
                     EventEntity entity = mapToEntity(dto, receivedTime, payloadHash);
-                    eventRepository.save(entity);
+                    // Flush so a concurrent insert of the same eventId fails
+                    // here, before the change entry is written.
+                    eventRepository.saveAndFlush(entity);
+                    eventChangeService.recordAccepted(entity);
                     return IngestResult.ACCEPTED;
                 });
     }
@@ -110,6 +257,19 @@ public class EventIngestService {
     }
 
 
+    private EventEntity snapshot(EventEntity existing) {
+        EventEntity copy = new EventEntity();
+        copy.setEventId(existing.getEventId());
+        copy.setMachineId(existing.getMachineId());
+        copy.setEventTime(existing.getEventTime());
+        copy.setDurationMs(existing.getDurationMs());
+        copy.setDefectCount(existing.getDefectCount());
+        copy.setFactoryId(existing.getFactoryId());
+        copy.setLineId(existing.getLineId());
+        return copy;
+    }
+
+
     protected void validate(EventRequestDto dto) {
         if (dto.getDurationMs() < 0) {
             throw new IllegalArgumentException("INVALID_DURATION");
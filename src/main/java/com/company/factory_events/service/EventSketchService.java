@@ -0,0 +1,404 @@
+package com.company.factory_events.service;
+
+import com.company.factory_events.model.EventSketchEntity;
+import com.company.factory_events.model.EventSketchId;
+import com.company.factory_events.repository.EventSketchRepository;
+import com.company.factory_events.sketch.DurationHistogram;
+import com.company.factory_events.sketch.EventSketch;
+import com.company.factory_events.sketch.HyperLogLog;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maintains per-hour and per-day sketches of ingested events, per machine and
+ * per factory.
+ *
+ * Sketches are derived from {@code event_changes}, which ingest and bulk loads
+ * write in the same transaction as the event. A scheduled job applies the
+ * committed changes in log order and stores its position in
+ * {@code sketch_progress} in the same transaction as the sketch rows, so every
+ * committed change is applied exactly once and rolled-back writes never are.
+ * The progress row lock also keeps instances from applying changes twice.
+ *
+ * The first run (no progress row yet) backfills every sketch from
+ * {@code events} under a single snapshot and starts the position at that
+ * snapshot; changes the snapshot already saw are skipped.
+ */
+@Service
+public class EventSketchService {
+
+    private static final int BACKFILL_FETCH_SIZE = 10_000;
+
+    private final EventSketchRepository sketchRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate backfillTransactionTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final int applyBatchSize;
+
+    public EventSketchService(EventSketchRepository sketchRepository,
+                              TransactionTemplate transactionTemplate,
+                              DataSource dataSource,
+                              @Value("${sketch.apply-batch-size:10000}") int applyBatchSize) {
+        this.sketchRepository = sketchRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.backfillTransactionTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.backfillTransactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(BACKFILL_FETCH_SIZE);
+        this.applyBatchSize = applyBatchSize;
+    }
+
+    /**
+     * Applies every committed change not applied yet, backfilling first if
+     * this database has never been backfilled.
+     */
+    @Scheduled(fixedDelayString = "${sketch.apply-interval-ms:1000}")
+    public void applyChanges() {
+
+        if (!Boolean.TRUE.equals(transactionTemplate.execute(status -> isBackfilled()))) {
+            backfillTransactionTemplate.executeWithoutResult(status -> backfill());
+        }
+
+        Integer applied;
+        do {
+            applied = transactionTemplate.execute(status -> applyBatch());
+        } while (applied != null && applied == applyBatchSize);
+    }
+
+    public boolean isBackfilled() {
+        return jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM sketch_progress WHERE id = 1)", Boolean.class);
+    }
+
+    private int applyBatch() {
+
+        List<Position> progress = jdbcTemplate.query(
+                "SELECT tx_id, change_id, backfill_snapshot FROM sketch_progress WHERE id = 1 FOR UPDATE",
+                (rs, rowNum) -> new Position(rs.getLong(1), rs.getLong(2), rs.getString(3)));
+        if (progress.isEmpty()) {
+            return 0;
+        }
+        Position position = progress.get(0);
+
+        List<Change> changes = jdbcTemplate.query("""
+                SELECT id, tx_id, outcome, machine_id, factory_id, event_time, duration_ms, new_defect_count,
+                       old_machine_id, old_factory_id, old_event_time, old_duration_ms, old_defect_count,
+                       coalesce(pg_visible_in_snapshot(CAST(CAST(tx_id AS text) AS xid8),
+                                                       CAST(? AS pg_snapshot)), false)
+                FROM event_changes
+                WHERE (tx_id, id) > (?, ?)
+                  AND tx_id < CAST(CAST(pg_snapshot_xmin(pg_current_snapshot()) AS text) AS bigint)
+                ORDER BY tx_id, id
+                LIMIT ?
+                """, this::mapChange, position.backfillSnapshot(), position.txId(), position.changeId(), applyBatchSize);
+
+        if (changes.isEmpty()) {
+            return 0;
+        }
+
+        Map<EventSketchId, EventSketch> deltas = new HashMap<>();
+        for (Change change : changes) {
+            if (change.seenByBackfill() || change.eventTime() == null) {
+                continue;
+            }
+            if ("UPDATED".equals(change.outcome()) && change.oldEventTime() != null) {
+                for (EventSketchId key : keysOf(change.oldMachineId(), change.oldFactoryId(), change.oldEventTime())) {
+                    deltas.computeIfAbsent(key, this::newSketch)
+                            .remove(change.oldDurationMs(), change.oldDefectCount());
+                }
+            }
+            for (EventSketchId key : keysOf(change.machineId(), change.factoryId(), change.eventTime())) {
+                deltas.computeIfAbsent(key, this::newSketch)
+                        .add(change.machineId(), change.durationMs(), change.newDefectCount());
+            }
+        }
+
+        deltas.forEach(this::mergeIntoStore);
+
+        Change last = changes.get(changes.size() - 1);
+        jdbcTemplate.update("""
+                UPDATE sketch_progress
+                SET tx_id = ?,
+                    change_id = ?,
+                    backfill_snapshot = CASE
+                        WHEN ? >= CAST(CAST(pg_snapshot_xmax(CAST(backfill_snapshot AS pg_snapshot)) AS text) AS bigint)
+                            THEN NULL
+                        ELSE backfill_snapshot
+                    END
+                WHERE id = 1
+                """, last.txId(), last.id(), last.txId());
+
+        return changes.size();
+    }
+
+    /**
+     * Adds to {@code target} the committed changes to this machine's events
+     * in [start, end) that the sketches do not contain yet. These are the
+     * changes after the stored position, so the set is bounded by how far
+     * the maintainer lags, not by the window. Call it in the same
+     * repeatable-read transaction as the sketch read, so the position and
+     * the sketch rows come from one snapshot.
+     */
+    public void addPendingChanges(EventSketch target, String machineId, Instant start, Instant end) {
+
+        List<Change> changes = jdbcTemplate.query("""
+                SELECT c.id, c.tx_id, c.outcome, c.machine_id, c.factory_id, c.event_time, c.duration_ms,
+                       c.new_defect_count, c.old_machine_id, c.old_factory_id, c.old_event_time,
+                       c.old_duration_ms, c.old_defect_count,
+                       coalesce(pg_visible_in_snapshot(CAST(CAST(c.tx_id AS text) AS xid8),
+                                                       CAST(p.backfill_snapshot AS pg_snapshot)), false)
+                FROM event_changes c, sketch_progress p
+                WHERE p.id = 1
+                  AND (c.tx_id, c.id) > (p.tx_id, p.change_id)
+                  AND (c.machine_id = ? OR c.old_machine_id = ?)
+                ORDER BY c.tx_id, c.id
+                """, this::mapChange, machineId, machineId);
+
+        for (Change change : changes) {
+            if (change.seenByBackfill() || change.eventTime() == null) {
+                continue;
+            }
+            if ("UPDATED".equals(change.outcome())
+                    && machineId.equals(change.oldMachineId())
+                    && isWithin(change.oldEventTime(), start, end)) {
+                target.remove(change.oldDurationMs(), change.oldDefectCount());
+            }
+            if (machineId.equals(change.machineId()) && isWithin(change.eventTime(), start, end)) {
+                target.add(change.machineId(), change.durationMs(), change.newDefectCount());
+            }
+        }
+    }
+
+    private static boolean isWithin(Instant instant, Instant start, Instant end) {
+        return instant != null && !instant.isBefore(start) && instant.isBefore(end);
+    }
+
+    private void mergeIntoStore(EventSketchId key, EventSketch delta) {
+        sketchRepository.insertEmptyIfAbsent(
+                key.getScope().name(), key.getScopeId(), key.getGranularity().name(), key.getBucketStart());
+
+        EventSketchEntity row = sketchRepository.findForUpdate(key).orElseThrow();
+        EventSketch merged = toSketch(row);
+        merged.merge(delta);
+        writeTo(row, merged);
+        sketchRepository.save(row);
+    }
+
+    /**
+     * Replaces every sketch with one computed from {@code events} and records
+     * the snapshot it was computed from. Runs in a repeatable-read transaction,
+     * so the snapshot is fixed by the first statement; if another instance
+     * backfills concurrently, one of the two fails on the progress row and
+     * rolls back. Memory is bounded by one day of buckets.
+     */
+    private void backfill() {
+
+        Map<String, Object> snapshot = jdbcTemplate.queryForMap("""
+                SELECT CAST(pg_current_snapshot() AS text) AS snapshot,
+                       CAST(CAST(pg_snapshot_xmin(pg_current_snapshot()) AS text) AS bigint) AS xmin
+                """);
+
+        jdbcTemplate.update("DELETE FROM event_sketches");
+
+        Map<EventSketchId, EventSketch> day = new HashMap<>();
+        Instant[] currentDay = new Instant[1];
+
+        jdbcTemplate.query("""
+                SELECT machine_id, factory_id, event_time, duration_ms, defect_count
+                FROM events
+                ORDER BY event_time
+                """, rs -> {
+            String machineId = rs.getString(1);
+            String factoryId = rs.getString(2);
+            Instant eventTime = rs.getTimestamp(3).toInstant();
+            Instant eventDay = eventTime.truncatedTo(ChronoUnit.DAYS);
+
+            if (!eventDay.equals(currentDay[0])) {
+                insertAll(day);
+                day.clear();
+                currentDay[0] = eventDay;
+            }
+
+            for (EventSketchId key : keysOf(machineId, factoryId, eventTime)) {
+                day.computeIfAbsent(key, this::newSketch)
+                        .add(machineId, rs.getLong(4), rs.getInt(5));
+            }
+        });
+
+        insertAll(day);
+
+        // Every change below xmin is visible to the snapshot; later ones are
+        // checked against it when applied.
+        jdbcTemplate.update(
+                "INSERT INTO sketch_progress (id, tx_id, change_id, backfill_snapshot) VALUES (1, ?, ?, ?)",
+                ((Number) snapshot.get("xmin")).longValue() - 1, Long.MAX_VALUE, snapshot.get("snapshot"));
+    }
+
+    private void insertAll(Map<EventSketchId, EventSketch> sketches) {
+        List<Object[]> rows = sketches.entrySet().stream()
+                .map(entry -> {
+                    EventSketchId key = entry.getKey();
+                    EventSketch sketch = entry.getValue();
+                    return new Object[] {
+                            key.getScope().name(),
+                            key.getScopeId(),
+                            key.getGranularity().name(),
+                            Timestamp.from(key.getBucketStart()),
+                            sketch.getEventsCount(),
+                            sketch.getDefectsCount(),
+                            sketch.getDurations().toBytes(),
+                            sketch.getMachines() != null ? sketch.getMachines().toBytes() : null
+                    };
+                })
+                .toList();
+
+        jdbcTemplate.batchUpdate("""
+                INSERT INTO event_sketches (scope, scope_id, granularity, bucket_start,
+                                            events_count, defects_count, duration_histogram, machines_hll)
+                VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+                """, rows);
+    }
+
+    /**
+     * Merges the stored sketches covering [start, end); both bounds must be
+     * hour-aligned. Full days are read from day buckets and the partial days
+     * at either edge from hour buckets, so the number of rows read grows by
+     * one per day rather than one per hour.
+     */
+    public EventSketch summarize(EventSketchId.Scope scope, String scopeId, Instant start, Instant end) {
+
+        EventSketch result = new EventSketch(scope == EventSketchId.Scope.FACTORY);
+
+        Instant firstFullDay = ceilToDay(start);
+        Instant lastFullDay = end.truncatedTo(ChronoUnit.DAYS);
+
+        if (firstFullDay.isBefore(lastFullDay)) {
+            mergeRows(result, sketchRepository.findBuckets(
+                    scope, scopeId, EventSketchId.Granularity.HOUR, start, firstFullDay));
+            mergeRows(result, sketchRepository.findBuckets(
+                    scope, scopeId, EventSketchId.Granularity.DAY, firstFullDay, lastFullDay));
+            mergeRows(result, sketchRepository.findBuckets(
+                    scope, scopeId, EventSketchId.Granularity.HOUR, lastFullDay, end));
+        } else {
+            mergeRows(result, sketchRepository.findBuckets(
+                    scope, scopeId, EventSketchId.Granularity.HOUR, start, end));
+        }
+
+        return result;
+    }
+
+    private void mergeRows(EventSketch target, List<EventSketchEntity> rows) {
+        for (EventSketchEntity row : rows) {
+            target.merge(toSketch(row));
+        }
+    }
+
+    private EventSketch newSketch(EventSketchId key) {
+        return new EventSketch(key.getScope() == EventSketchId.Scope.FACTORY);
+    }
+
+    private EventSketch toSketch(EventSketchEntity row) {
+        return new EventSketch(
+                row.getEventsCount(),
+                row.getDefectsCount(),
+                DurationHistogram.fromBytes(row.getDurationHistogram()),
+                row.getId().getScope() == EventSketchId.Scope.FACTORY
+                        ? HyperLogLog.fromBytes(row.getMachinesHll())
+                        : null
+        );
+    }
+
+    private void writeTo(EventSketchEntity row, EventSketch sketch) {
+        row.setEventsCount(sketch.getEventsCount());
+        row.setDefectsCount(sketch.getDefectsCount());
+        row.setDurationHistogram(sketch.getDurations().toBytes());
+        row.setMachinesHll(sketch.getMachines() != null ? sketch.getMachines().toBytes() : null);
+    }
+
+    private List<EventSketchId> keysOf(String machineId, String factoryId, Instant eventTime) {
+        Instant hour = eventTime.truncatedTo(ChronoUnit.HOURS);
+        Instant day = eventTime.truncatedTo(ChronoUnit.DAYS);
+
+        EventSketchId machineHour = new EventSketchId(
+                EventSketchId.Scope.MACHINE, machineId, EventSketchId.Granularity.HOUR, hour);
+        EventSketchId machineDay = new EventSketchId(
+                EventSketchId.Scope.MACHINE, machineId, EventSketchId.Granularity.DAY, day);
+
+        if (factoryId == null) {
+            return List.of(machineHour, machineDay);
+        }
+
+        return List.of(
+                machineHour,
+                machineDay,
+                new EventSketchId(EventSketchId.Scope.FACTORY, factoryId, EventSketchId.Granularity.HOUR, hour),
+                new EventSketchId(EventSketchId.Scope.FACTORY, factoryId, EventSketchId.Granularity.DAY, day)
+        );
+    }
+
+    private Change mapChange(ResultSet rs, int rowNum) throws SQLException {
+        return new Change(
+                rs.getLong(1),
+                rs.getLong(2),
+                rs.getString(3),
+                rs.getString(4),
+                rs.getString(5),
+                toInstant(rs.getTimestamp(6)),
+                rs.getLong(7),
+                rs.getInt(8),
+                rs.getString(9),
+                rs.getString(10),
+                toInstant(rs.getTimestamp(11)),
+                rs.getLong(12),
+                rs.getInt(13),
+                rs.getBoolean(14)
+        );
+    }
+
+    private static Instant toInstant(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toInstant() : null;
+    }
+
+    static Instant ceilToDay(Instant instant) {
+        Instant day = instant.truncatedTo(ChronoUnit.DAYS);
+        return day.equals(instant) ? day : day.plus(1, ChronoUnit.DAYS);
+    }
+
+    static Instant ceilToHour(Instant instant) {
+        Instant hour = instant.truncatedTo(ChronoUnit.HOURS);
+        return hour.equals(instant) ? hour : hour.plus(1, ChronoUnit.HOURS);
+    }
+
+    private record Position(long txId, long changeId, String backfillSnapshot) {
+    }
+
+    private record Change(long id,
+                          long txId,
+                          String outcome,
+                          String machineId,
+                          String factoryId,
+                          Instant eventTime,
+                          long durationMs,
+                          int newDefectCount,
+                          String oldMachineId,
+                          String oldFactoryId,
+                          Instant oldEventTime,
+                          long oldDurationMs,
+                          int oldDefectCount,
+                          boolean seenByBackfill) {
+    }
+}
@@ -0,0 +1,216 @@
+package com.company.factory_events.service;
+
+import com.company.factory_events.admission.AdmissionControl;
+import com.company.factory_events.admission.AdmissionRejectedException;
+import com.company.factory_events.cluster.ConsistentHashRing;
+import com.company.factory_events.dto.BatchIngestResponseDto;
+import com.company.factory_events.dto.EventRequestDto;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClient;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Entry point for client batches when several instances share one database.
+ *
+ * Every eventId is owned by exactly one node on the consistent-hash ring.
+ * The batch is split by owner; the local part is ingested here and the rest
+ * is forwarded to the owners' {@code /events/batch/owned} endpoint, which
+ * never forwards again. Because one node handles all writes for an eventId,
+ * nodes do not race on the same row.
+ *
+ * The entry node's admission slot covers only its local part and is released
+ * before waiting for the owners, so network time is neither held against
+ * this node's limit nor sampled as database latency. If an owner sheds its
+ * part with a 429, the whole request is answered with a 429 and the largest
+ * Retry-After; parts that were written are deduplicated when the client
+ * retries.
+ */
+@Service
+public class PartitionedIngestService {
+
+    static final String OWNER_UNAVAILABLE = "OWNER_UNAVAILABLE";
+    static final String OWNER_OVERLOADED = "OWNER_OVERLOADED";
+
+    private final EventIngestService eventIngestService;
+    private final ConsistentHashRing ring;
+    private final RestClient clusterRestClient;
+    private final ExecutorService forwardExecutor;
+    private final String self;
+
+    public PartitionedIngestService(EventIngestService eventIngestService,
+                                    ConsistentHashRing ring,
+                                    RestClient clusterRestClient,
+                                    @Qualifier("clusterForwardExecutor") ExecutorService forwardExecutor,
+                                    @Value("${cluster.self}") String self) {
+        this.eventIngestService = eventIngestService;
+        this.ring = ring;
+        this.clusterRestClient = clusterRestClient;
+        this.forwardExecutor = forwardExecutor;
+        this.self = self;
+    }
+
+    /**
+     * @param permit this node's admission slot; always released by the time
+     *               this method returns
+     */
+    public BatchIngestResponseDto ingestBatch(List<EventRequestDto> events, AdmissionControl.Permit permit) {
+
+        try {
+            Map<String, List<Integer>> parts = new LinkedHashMap<>();
+            for (int i = 0; i < events.size(); i++) {
+                String eventId = events.get(i).getEventId();
+                String owner = eventId != null ? ring.ownerOf(eventId) : self;
+                parts.computeIfAbsent(owner, k -> new ArrayList<>()).add(i);
+            }
+
+            if (parts.size() == 1 && parts.containsKey(self)) {
+                return permit.execute(() -> eventIngestService.ingestBatch(events));
+            }
+
+            Map<String, CompletableFuture<BatchIngestResponseDto>> remote = new LinkedHashMap<>();
+            for (Map.Entry<String, List<Integer>> part : parts.entrySet()) {
+                if (!part.getKey().equals(self)) {
+                    List<EventRequestDto> subBatch = select(events, part.getValue());
+                    remote.put(part.getKey(), CompletableFuture
+                            .supplyAsync(() -> forward(part.getKey(), subBatch), forwardExecutor)
+                            .exceptionally(ex -> {
+                                if (ex.getCause() instanceof AdmissionRejectedException shed) {
+                                    throw shed;
+                                }
+                                return unavailable(subBatch);
+                            }));
+                }
+            }
+
+            Map<String, BatchIngestResponseDto> results = new LinkedHashMap<>();
+            if (parts.containsKey(self)) {
+                List<EventRequestDto> local = select(events, parts.get(self));
+                results.put(self, permit.execute(() -> eventIngestService.ingestBatch(local)));
+            } else {
+                permit.release();
+            }
+
+            AdmissionRejectedException shed = null;
+            for (Map.Entry<String, CompletableFuture<BatchIngestResponseDto>> entry : remote.entrySet()) {
+                try {
+                    results.put(entry.getKey(), entry.getValue().join());
+                } catch (CompletionException ex) {
+                    if (!(ex.getCause() instanceof AdmissionRejectedException rejected)) {
+                        throw ex;
+                    }
+                    if (shed == null || rejected.getRetryAfterSeconds() > shed.getRetryAfterSeconds()) {
+                        shed = rejected;
+                    }
+                }
+            }
+            if (shed != null) {
+                throw shed;
+            }
+
+            return merge(events, parts, results);
+        } finally {
+            permit.release();
+        }
+    }
+
+    private BatchIngestResponseDto forward(String owner, List<EventRequestDto> subBatch) {
+        try {
+            return clusterRestClient.post()
+                    .uri(owner + "/events/batch/owned")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(subBatch)
+                    .retrieve()
+                    .body(BatchIngestResponseDto.class);
+        } catch (HttpClientErrorException.TooManyRequests ex) {
+            throw new AdmissionRejectedException(OWNER_OVERLOADED, retryAfterSeconds(ex));
+        }
+    }
+
+    private long retryAfterSeconds(HttpClientErrorException ex) {
+        String retryAfter = ex.getResponseHeaders() != null
+                ? ex.getResponseHeaders().getFirst(HttpHeaders.RETRY_AFTER)
+                : null;
+        try {
+            return retryAfter != null ? Math.max(1, Long.parseLong(retryAfter.trim())) : 1;
+        } catch (NumberFormatException invalid) {
+            return 1;
+        }
+    }
+
+    /**
+     * The owner could not be reached; the events are rejected rather than
+     * written by a non-owner, so the client can safely retry them.
+     */
+    private BatchIngestResponseDto unavailable(List<EventRequestDto> subBatch) {
+        BatchIngestResponseDto response = new BatchIngestResponseDto();
+        response.setRejected(subBatch.size());
+        for (EventRequestDto dto : subBatch) {
+            response.getRejections().add(
+                    new BatchIngestResponseDto.Rejection(dto.getEventId(), OWNER_UNAVAILABLE));
+        }
+        return response;
+    }
+
+    /**
+     * Sums the counters and puts rejections back in original batch order.
+     * Each part reports its rejections in part order, so they are matched to
+     * the part's event indexes by walking both lists together.
+     */
+    private BatchIngestResponseDto merge(List<EventRequestDto> events,
+                                         Map<String, List<Integer>> parts,
+                                         Map<String, BatchIngestResponseDto> results) {
+
+        BatchIngestResponseDto response = new BatchIngestResponseDto();
+        BatchIngestResponseDto.Rejection[] rejections = new BatchIngestResponseDto.Rejection[events.size()];
+
+        for (Map.Entry<String, BatchIngestResponseDto> entry : results.entrySet()) {
+            BatchIngestResponseDto part = entry.getValue();
+            response.setAccepted(response.getAccepted() + part.getAccepted());
+            response.setUpdated(response.getUpdated() + part.getUpdated());
+            response.setDeduped(response.getDeduped() + part.getDeduped());
+            response.setIgnored(response.getIgnored() + part.getIgnored());
+            response.setRejected(response.getRejected() + part.getRejected());
+
+            List<Integer> indexes = parts.get(entry.getKey());
+            int cursor = 0;
+            for (BatchIngestResponseDto.Rejection rejection : part.getRejections()) {
+                while (cursor < indexes.size()
+                        && !Objects.equals(events.get(indexes.get(cursor)).getEventId(), rejection.getEventId())) {
+                    cursor++;
+                }
+                if (cursor < indexes.size()) {
+                    rejections[indexes.get(cursor++)] = rejection;
+                }
+            }
+        }
+
+        for (BatchIngestResponseDto.Rejection rejection : rejections) {
+            if (rejection != null) {
+                response.getRejections().add(rejection);
+            }
+        }
+
+        return response;
+    }
+
+    private List<EventRequestDto> select(List<EventRequestDto> events, List<Integer> indexes) {
+        List<EventRequestDto> selected = new ArrayList<>(indexes.size());
+        for (int index : indexes) {
+            selected.add(events.get(index));
+        }
+        return selected;
+    }
+}
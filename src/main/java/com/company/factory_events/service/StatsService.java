@@ -1,40 +1,52 @@
 package com.company.factory_events.service;
 
+import com.company.factory_events.dto.ApproximateStatsResponseDto;
 import com.company.factory_events.dto.StatsResponseDto;
-import com.company.factory_events.model.EventEntity;
+import com.company.factory_events.model.EventSketchId;
 import com.company.factory_events.repository.EventRepository;
+import com.company.factory_events.sketch.DurationHistogram;
+import com.company.factory_events.sketch.EventSketch;
+import com.company.factory_events.sketch.HyperLogLog;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Duration;
 import java.time.Instant;
-import java.util.List;
+import java.time.temporal.ChronoUnit;
 
 @Service
+@Transactional(readOnly = true)
 public class StatsService {
 
     private final EventRepository eventRepository;
+    private final EventSketchService eventSketchService;
 
-    public StatsService(EventRepository eventRepository) {
+    public StatsService(EventRepository eventRepository,
+                        EventSketchService eventSketchService) {
         this.eventRepository = eventRepository;
+        this.eventSketchService = eventSketchService;
     }
 
+    /**
+     * Repeatable read, so the counts, the sketch rows, the maintainer's
+     * position and the pending changes all come from one snapshot.
+     */
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
     public StatsResponseDto getStats(String machineId, Instant start, Instant end) {
 
         if (!start.isBefore(end)) {
             throw new IllegalArgumentException("INVALID_TIME_WINDOW");
         }
 
-        List<EventEntity> events =
-                eventRepository.findByMachineIdAndEventTimeGreaterThanEqualAndEventTimeLessThan(
+        long eventsCount =
+                eventRepository.countByMachineIdAndEventTimeGreaterThanEqualAndEventTimeLessThan(
                         machineId, start, end
                 );
 
-        long eventsCount = events.size();
+        long defectsCount = eventRepository.sumDefects(machineId, start, end);
 
-        long defectsCount = events.stream()
-                .filter(e -> e.getDefectCount() != -1)
-                .mapToLong(EventEntity::getDefectCount)
-                .sum();
+        DurationHistogram durations = durationHistogram(machineId, start, end);
 
         double windowHours = Duration.between(start, end).toSeconds() / 3600.0;
 
@@ -52,6 +64,103 @@ public class StatsService {
         response.setDefectsCount(defectsCount);
         response.setAvgDefectRate(avgDefectRate);
         response.setStatus(status);
+        response.setDurationP50Ms(durations.valueAtQuantile(0.50));
+        response.setDurationP95Ms(durations.valueAtQuantile(0.95));
+        response.setDurationP99Ms(durations.valueAtQuantile(0.99));
+
+        return response;
+    }
+
+    /**
+     * Whole hours come from the machine's hour/day sketches plus the changes
+     * to it that have committed but not been applied yet; only the partial
+     * hours at the window edges are read raw. Cost grows with the number of
+     * days and the apply lag, not with the events in the window. Before the
+     * first backfill there are no sketches, and the window is read raw.
+     */
+    private DurationHistogram durationHistogram(String machineId, Instant start, Instant end) {
+
+        DurationHistogram histogram = new DurationHistogram();
+
+        Instant sketchStart = EventSketchService.ceilToHour(start);
+        Instant sketchEnd = end.truncatedTo(ChronoUnit.HOURS);
+
+        if (!sketchStart.isBefore(sketchEnd) || !eventSketchService.isBackfilled()) {
+            recordRaw(histogram, machineId, start, end);
+            return histogram;
+        }
+
+        EventSketch sketch = eventSketchService
+                .summarize(EventSketchId.Scope.MACHINE, machineId, sketchStart, sketchEnd);
+        eventSketchService.addPendingChanges(sketch, machineId, sketchStart, sketchEnd);
+
+        histogram.merge(sketch.getDurations());
+        recordRaw(histogram, machineId, start, sketchStart);
+        recordRaw(histogram, machineId, sketchEnd, end);
+        return histogram;
+    }
+
+    private void recordRaw(DurationHistogram histogram, String machineId, Instant start, Instant end) {
+        if (!start.isBefore(end)) {
+            return;
+        }
+        for (long durationMs : eventRepository.findDurations(machineId, start, end)) {
+            histogram.record(durationMs);
+        }
+    }
+
+    /**
+     * Opt-in approximate stats for one machine or one factory, answered from
+     * ingest-time sketches instead of raw rows. The window is widened to whole
+     * hours and the cost depends on the number of days, not events.
+     */
+    public ApproximateStatsResponseDto getApproximateStats(String machineId,
+                                                           String factoryId,
+                                                           Instant start,
+                                                           Instant end) {
+
+        if (!start.isBefore(end)) {
+            throw new IllegalArgumentException("INVALID_TIME_WINDOW");
+        }
+
+        if ((machineId == null) == (factoryId == null)) {
+            throw new IllegalArgumentException("MACHINE_OR_FACTORY_REQUIRED");
+        }
+
+        Instant alignedStart = start.truncatedTo(ChronoUnit.HOURS);
+        Instant alignedEnd = EventSketchService.ceilToHour(end);
+
+        EventSketch sketch = machineId != null
+                ? eventSketchService.summarize(EventSketchId.Scope.MACHINE, machineId, alignedStart, alignedEnd)
+                : eventSketchService.summarize(EventSketchId.Scope.FACTORY, factoryId, alignedStart, alignedEnd);
+
+        double windowHours = Duration.between(alignedStart, alignedEnd).toSeconds() / 3600.0;
+        double avgDefectRate = sketch.getDefectsCount() / windowHours;
+
+        ApproximateStatsResponseDto response = new ApproximateStatsResponseDto();
+        response.setMachineId(machineId);
+        response.setFactoryId(factoryId);
+        response.setStart(start);
+        response.setEnd(end);
+        response.setAlignedStart(alignedStart);
+        response.setAlignedEnd(alignedEnd);
+        response.setEventsCount(sketch.getEventsCount());
+        response.setDefectsCount(sketch.getDefectsCount());
+        response.setAvgDefectRate(avgDefectRate);
+        response.setStatus(avgDefectRate < 2.0 ? "Healthy" : "Warning");
+
+        if (sketch.getMachines() != null) {
+            response.setDistinctMachines(sketch.getMachines().estimate());
+            response.setDistinctMachinesRelativeError(HyperLogLog.RELATIVE_ERROR);
+        } else {
+            response.setDistinctMachines(sketch.getEventsCount() > 0 ? 1 : 0);
+        }
+
+        DurationHistogram durations = sketch.getDurations();
+        response.setDurationP50Ms(durations.valueAtQuantile(0.50));
+        response.setDurationP95Ms(durations.valueAtQuantile(0.95));
+        response.setDurationP99Ms(durations.valueAtQuantile(0.99));
+        response.setDurationRelativeError(DurationHistogram.RELATIVE_ERROR);
 
         return response;
     }
@@ -0,0 +1,136 @@
+package com.company.factory_events.sketch;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Mergeable log-linear histogram of durations (HDR-style).
+ *
+ * Values below 128 are counted exactly; larger values fall into one of 128
+ * sub-buckets per power of two, so any reported quantile is within
+ * {@link #RELATIVE_ERROR} of a recorded value. Counts may go negative in a
+ * delta so an updated event can be moved between buckets.
+ */
+public class DurationHistogram {
+
+    private static final int SUB_BUCKET_BITS = 7;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+    /** Maximum relative error of {@link #valueAtQuantile(double)}. */
+    public static final double RELATIVE_ERROR = 1.0 / (2 * SUB_BUCKET_COUNT);
+
+    private long[] counts = new long[SUB_BUCKET_COUNT];
+    private long totalCount;
+
+    public void record(long value) {
+        add(value, 1);
+    }
+
+    public void remove(long value) {
+        add(value, -1);
+    }
+
+    private void add(long value, long delta) {
+        int index = indexOf(Math.max(0, value));
+        ensureCapacity(index + 1);
+        counts[index] += delta;
+        totalCount += delta;
+    }
+
+    public void merge(DurationHistogram other) {
+        ensureCapacity(other.counts.length);
+        for (int i = 0; i < other.counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        totalCount += other.totalCount;
+    }
+
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    public boolean isEmpty() {
+        return totalCount <= 0;
+    }
+
+    /**
+     * @param quantile in [0, 1]
+     * @return the midpoint of the bucket holding the quantile, or 0 when empty
+     */
+    public long valueAtQuantile(double quantile) {
+        if (totalCount <= 0) {
+            return 0;
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(quantile * totalCount));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return midpointOf(i);
+            }
+        }
+        return midpointOf(counts.length - 1);
+    }
+
+    static int indexOf(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) - SUB_BUCKET_COUNT;
+        return (shift + 1) * SUB_BUCKET_COUNT + subBucket;
+    }
+
+    static long midpointOf(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = index / SUB_BUCKET_COUNT - 1;
+        long subBucket = index % SUB_BUCKET_COUNT;
+        long lower = (subBucket + SUB_BUCKET_COUNT) << shift;
+        return lower + ((1L << shift) >>> 1);
+    }
+
+    private void ensureCapacity(int length) {
+        if (counts.length < length) {
+            counts = Arrays.copyOf(counts, length);
+        }
+    }
+
+    /**
+     * Sparse encoding: pairs of (index gap, count) as zig-zag varints.
+     */
+    public byte[] toBytes() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int previous = 0;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] != 0) {
+                Varints.write(out, i - previous);
+                Varints.write(out, counts[i]);
+                previous = i;
+            }
+        }
+        return out.toByteArray();
+    }
+
+    public static DurationHistogram fromBytes(byte[] bytes) {
+        DurationHistogram histogram = new DurationHistogram();
+        if (bytes == null) {
+            return histogram;
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        int index = 0;
+        while (buffer.hasRemaining()) {
+            index += (int) Varints.read(buffer);
+            long count = Varints.read(buffer);
+            histogram.ensureCapacity(index + 1);
+            histogram.counts[index] += count;
+            histogram.totalCount += count;
+        }
+        return histogram;
+    }
+}
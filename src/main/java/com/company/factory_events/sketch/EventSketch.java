@@ -0,0 +1,77 @@
+package com.company.factory_events.sketch;
+
+/**
+ * Mergeable summary of the events in one bucket: counts, a duration
+ * histogram and, for factory-wide buckets, a distinct-machine estimator.
+ */
+public class EventSketch {
+
+    private long eventsCount;
+    private long defectsCount;
+    private final DurationHistogram durations;
+    private final HyperLogLog machines;
+
+    public EventSketch(boolean trackMachines) {
+        this(0, 0, new DurationHistogram(), trackMachines ? new HyperLogLog() : null);
+    }
+
+    public EventSketch(long eventsCount,
+                       long defectsCount,
+                       DurationHistogram durations,
+                       HyperLogLog machines) {
+        this.eventsCount = eventsCount;
+        this.defectsCount = defectsCount;
+        this.durations = durations;
+        this.machines = machines;
+    }
+
+    public synchronized void add(String machineId, long durationMs, int defectCount) {
+        eventsCount++;
+        if (defectCount != -1) {
+            defectsCount += defectCount;
+        }
+        durations.record(durationMs);
+        if (machines != null) {
+            machines.add(machineId);
+        }
+    }
+
+    /**
+     * Distinct-machine registers cannot forget a machine, so only counts and
+     * durations are taken back out.
+     */
+    public synchronized void remove(long durationMs, int defectCount) {
+        eventsCount--;
+        if (defectCount != -1) {
+            defectsCount -= defectCount;
+        }
+        durations.remove(durationMs);
+    }
+
+    public synchronized void merge(EventSketch other) {
+        synchronized (other) {
+            eventsCount += other.eventsCount;
+            defectsCount += other.defectsCount;
+            durations.merge(other.durations);
+            if (machines != null && other.machines != null) {
+                machines.merge(other.machines);
+            }
+        }
+    }
+
+    public synchronized long getEventsCount() {
+        return eventsCount;
+    }
+
+    public synchronized long getDefectsCount() {
+        return defectsCount;
+    }
+
+    public DurationHistogram getDurations() {
+        return durations;
+    }
+
+    public HyperLogLog getMachines() {
+        return machines;
+    }
+}
@@ -0,0 +1,90 @@
+package com.company.factory_events.sketch;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Mergeable distinct-count estimator with 2^12 one-byte registers (4 KB).
+ */
+public class HyperLogLog {
+
+    private static final int PRECISION = 12;
+    private static final int REGISTER_COUNT = 1 << PRECISION;
+
+    /** Standard error of {@link #estimate()}: 1.04 / sqrt(m). */
+    public static final double RELATIVE_ERROR = 1.04 / Math.sqrt(REGISTER_COUNT);
+
+    private final byte[] registers;
+
+    public HyperLogLog() {
+        this.registers = new byte[REGISTER_COUNT];
+    }
+
+    private HyperLogLog(byte[] registers) {
+        this.registers = registers;
+    }
+
+    public void add(String value) {
+        long hash = hash(value);
+        int index = (int) (hash >>> (64 - PRECISION));
+        int rank = Long.numberOfLeadingZeros((hash << PRECISION) | (1L << (PRECISION - 1))) + 1;
+        if (rank > registers[index]) {
+            registers[index] = (byte) rank;
+        }
+    }
+
+    public void merge(HyperLogLog other) {
+        for (int i = 0; i < REGISTER_COUNT; i++) {
+            if (other.registers[i] > registers[i]) {
+                registers[i] = other.registers[i];
+            }
+        }
+    }
+
+    public long estimate() {
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += 1.0 / (1L << register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+
+        double alpha = 0.7213 / (1 + 1.079 / REGISTER_COUNT);
+        double estimate = alpha * REGISTER_COUNT * REGISTER_COUNT / sum;
+
+        if (estimate <= 2.5 * REGISTER_COUNT && zeros > 0) {
+            estimate = REGISTER_COUNT * Math.log((double) REGISTER_COUNT / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    public byte[] toBytes() {
+        return registers.clone();
+    }
+
+    public static HyperLogLog fromBytes(byte[] bytes) {
+        if (bytes == null || bytes.length != REGISTER_COUNT) {
+            return new HyperLogLog();
+        }
+        return new HyperLogLog(Arrays.copyOf(bytes, REGISTER_COUNT));
+    }
+
+    /**
+     * 64-bit FNV-1a over UTF-8 bytes followed by the murmur3 finalizer.
+     */
+    private static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xFF;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb93e53bfb2f9L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,31 @@
+package com.company.factory_events.sketch;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+
+final class Varints {
+
+    private Varints() {
+    }
+
+    static void write(ByteArrayOutputStream out, long value) {
+        long zigZag = (value << 1) ^ (value >> 63);
+        while ((zigZag & ~0x7FL) != 0) {
+            out.write((int) ((zigZag & 0x7F) | 0x80));
+            zigZag >>>= 7;
+        }
+        out.write((int) zigZag);
+    }
+
+    static long read(ByteBuffer buffer) {
+        long zigZag = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get();
+            zigZag |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return (zigZag >>> 1) ^ -(zigZag & 1);
+    }
+}
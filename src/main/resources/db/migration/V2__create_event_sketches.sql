@@ -0,0 +1,11 @@
+CREATE TABLE IF NOT EXISTS event_sketches (
+    scope               VARCHAR(16) NOT NULL,
+    scope_id            VARCHAR(64) NOT NULL,
+    granularity         VARCHAR(8)  NOT NULL,
+    bucket_start        TIMESTAMPTZ NOT NULL,
+    events_count        BIGINT NOT NULL,
+    defects_count       BIGINT NOT NULL,
+    duration_histogram  BYTEA NOT NULL,
+    machines_hll        BYTEA,
+    PRIMARY KEY (scope, scope_id, granularity, bucket_start)
+);
@@ -0,0 +1,2 @@
+CREATE INDEX IF NOT EXISTS idx_events_time_id
+    ON events(event_time, event_id);
@@ -0,0 +1,16 @@
+CREATE TABLE IF NOT EXISTS event_changes (
+    id                  BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    tx_id               BIGINT NOT NULL DEFAULT (pg_current_xact_id()::text::bigint),
+    event_id            VARCHAR(64) NOT NULL,
+    machine_id          VARCHAR(64) NOT NULL,
+    outcome             VARCHAR(16) NOT NULL,
+    old_defect_count    INT,
+    new_defect_count    INT NOT NULL,
+    changed_at          TIMESTAMPTZ NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_event_changes_tx_id
+    ON event_changes(tx_id, id);
+
+CREATE INDEX IF NOT EXISTS idx_event_changes_changed_at
+    ON event_changes(changed_at);
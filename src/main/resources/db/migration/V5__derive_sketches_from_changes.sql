@@ -0,0 +1,19 @@
+-- Sketches are maintained from the change log, so every change carries the
+-- before/after values that feed the histograms and counters.
+ALTER TABLE event_changes
+    ADD COLUMN IF NOT EXISTS factory_id      VARCHAR(32),
+    ADD COLUMN IF NOT EXISTS event_time      TIMESTAMPTZ,
+    ADD COLUMN IF NOT EXISTS duration_ms     BIGINT,
+    ADD COLUMN IF NOT EXISTS old_machine_id  VARCHAR(64),
+    ADD COLUMN IF NOT EXISTS old_factory_id  VARCHAR(32),
+    ADD COLUMN IF NOT EXISTS old_event_time  TIMESTAMPTZ,
+    ADD COLUMN IF NOT EXISTS old_duration_ms BIGINT;
+
+-- Position of the sketch maintainer in event_changes (single row, id = 1).
+-- Absent until sketches have been backfilled from events.
+CREATE TABLE IF NOT EXISTS sketch_progress (
+    id                  INT PRIMARY KEY,
+    tx_id               BIGINT NOT NULL,
+    change_id           BIGINT NOT NULL,
+    backfill_snapshot   TEXT
+);
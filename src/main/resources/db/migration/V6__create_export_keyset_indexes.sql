@@ -0,0 +1,12 @@
+-- Keyset indexes for filtered exports: each page is a range scan on
+-- (filter, event_time, event_id) with no filtering or sort step.
+-- The machine index also serves the stats range queries, so it replaces
+-- idx_events_machine_time. CONCURRENTLY keeps ingest running; Flyway runs
+-- this migration outside a transaction.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_events_machine_time_id
+    ON events(machine_id, event_time, event_id);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_events_line_time_id
+    ON events(line_id, event_time, event_id);
+
+DROP INDEX CONCURRENTLY IF EXISTS idx_events_machine_time;
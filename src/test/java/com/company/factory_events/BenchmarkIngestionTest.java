@@ -0,0 +1,114 @@
+package com.company.factory_events;
+
+import com.company.factory_events.dto.BatchIngestResponseDto;
+import com.company.factory_events.dto.EventRequestDto;
+import com.company.factory_events.repository.EventRepository;
+import com.company.factory_events.service.BulkLoadService;
+import com.company.factory_events.service.EventChangeService;
+import com.company.factory_events.service.EventIngestService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.Rollback;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Throughput measurements described in BENCHMARK.md. Runs only when selected
+ * explicitly: {@code mvn test -Dtest=BenchmarkIngestionTest}.
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "test", matches = ".*BenchmarkIngestionTest.*")
+class BenchmarkIngestionTest {
+
+    private static final int BULK_ROWS = 200_000;
+    private static final int SCALING_EVENTS = 5_000;
+    private static final String[] MACHINES =
+            IntStream.range(0, 50).mapToObj(i -> "M-BENCH-" + i).toArray(String[]::new);
+
+    @Autowired
+    private BulkLoadService bulkLoadService;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private EventChangeService eventChangeService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    @Qualifier("ingestExecutor")
+    private ExecutorService ingestExecutor;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Same batch size at increasing parallelism. Chunks commit on executor
+     * threads, so each run cleans up before the next.
+     */
+    @Test
+    void parallelIngestScaling() {
+
+        for (int parallelism : new int[] {1, 2, 5, 10}) {
+            EventIngestService service = new EventIngestService(
+                    eventRepository, eventChangeService, transactionTemplate, ingestExecutor, parallelism, 100);
+
+            List<EventRequestDto> events = new ArrayList<>(SCALING_EVENTS);
+            for (int i = 0; i < SCALING_EVENTS; i++) {
+                events.add(TestEvents.event("E-BENCH-P" + parallelism + "-" + i, MACHINES[i % MACHINES.length], "F-BENCH"));
+            }
+
+            try {
+                long start = System.nanoTime();
+                BatchIngestResponseDto response = service.ingestBatch(events);
+                long durationMs = (System.nanoTime() - start) / 1_000_000;
+
+                assertEquals(SCALING_EVENTS, response.getAccepted());
+                System.out.printf("parallelism %2d: %d events in %d ms (%d events/s)%n",
+                        parallelism, SCALING_EVENTS, durationMs, SCALING_EVENTS * 1000L / Math.max(durationMs, 1));
+            } finally {
+                TestEvents.deleteAll(jdbcTemplate, "F-BENCH", MACHINES);
+            }
+        }
+    }
+
+    @Test
+    @Transactional
+    @Rollback
+    void bulkLoadThroughput() {
+
+        Instant eventTime = Instant.now().minusSeconds(3600);
+        StringBuilder csv = new StringBuilder(BULK_ROWS * 80)
+                .append("eventId,machineId,eventTime,durationMs,defectCount,receivedTime,factoryId,lineId\n");
+        for (int i = 0; i < BULK_ROWS; i++) {
+            csv.append("E-BENCH-BULK-").append(i).append(",M-").append(i % 50).append(',')
+                    .append(eventTime.plusMillis(i)).append(',').append(1000 + i % 500).append(",1,,F01,L01\n");
+        }
+        byte[] body = csv.toString().getBytes(StandardCharsets.UTF_8);
+
+        long start = System.nanoTime();
+        BatchIngestResponseDto response = bulkLoadService.load(
+                new ByteArrayInputStream(body), BulkLoadService.Format.CSV);
+        long durationMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals(BULK_ROWS, response.getAccepted());
+        System.out.printf("bulk load: %d rows in %d ms (%d rows/s)%n",
+                BULK_ROWS, durationMs, BULK_ROWS * 1000L / Math.max(durationMs, 1));
+    }
+}
@@ -0,0 +1,184 @@
+package com.company.factory_events;
+
+import com.company.factory_events.dto.BatchIngestResponseDto;
+import com.company.factory_events.dto.EventRequestDto;
+import com.company.factory_events.repository.EventRepository;
+import com.company.factory_events.service.BulkLoadService;
+import com.company.factory_events.service.EventIngestService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.Rollback;
+import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class BulkLoadServiceTest {
+
+    @Autowired
+    private BulkLoadService bulkLoadService;
+
+    @Autowired
+    private EventIngestService ingestService;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final Instant now = Instant.now();
+
+    private EventRequestDto event(String id, int defectCount, Instant receivedTime) {
+        EventRequestDto dto = TestEvents.event(id, "M-BULK", "F01");
+        dto.setEventTime(now.minusSeconds(600));
+        dto.setDefectCount(defectCount);
+        dto.setReceivedTime(receivedTime);
+        return dto;
+    }
+
+    private BatchIngestResponseDto loadNdjson(List<EventRequestDto> events) {
+        String body = events.stream()
+                .map(objectMapper::writeValueAsString)
+                .collect(Collectors.joining("\n"));
+        return bulkLoadService.load(
+                new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), BulkLoadService.Format.NDJSON);
+    }
+
+    private BatchIngestResponseDto loadCsv(String body) {
+        return bulkLoadService.load(
+                new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), BulkLoadService.Format.CSV);
+    }
+
+    /** The same events with their ids prefixed, for comparing two ingest paths. */
+    private List<EventRequestDto> withPrefix(String prefix, List<EventRequestDto> events) {
+        return events.stream().map(e -> {
+            EventRequestDto copy = event(prefix + e.getEventId(), e.getDefectCount(), e.getReceivedTime());
+            copy.setDurationMs(e.getDurationMs());
+            return copy;
+        }).toList();
+    }
+
+    @Test
+    @Transactional
+    @Rollback
+    void csvLoadAcceptsValidRowsAndReportsRejectionsInFileOrder() {
+
+        String eventTime = now.minusSeconds(600).toString();
+        BatchIngestResponseDto response = loadCsv(
+                "eventId,machineId,eventTime,durationMs,defectCount,receivedTime,factoryId,lineId\n"
+                        + "E-CSV-1,M-BULK," + eventTime + ",1000,1,,F01,L01\n"
+                        + "E-CSV-2,M-BULK," + eventTime + ",-5,1,,F01,L01\n"
+                        + "E-CSV-3,," + eventTime + ",1000,1,,F01,L01\n"
+                        + "E-CSV-4,M-BULK," + now.plusSeconds(3600) + ",1000,1,,F01,L01\n");
+
+        assertEquals(1, response.getAccepted());
+        assertEquals(3, response.getRejected());
+        assertEquals(List.of("E-CSV-2", "E-CSV-3", "E-CSV-4"),
+                response.getRejections().stream().map(BatchIngestResponseDto.Rejection::getEventId).toList());
+        assertEquals(List.of("INVALID_DURATION", "MISSING_FIELD", "EVENT_TIME_IN_FUTURE"),
+                response.getRejections().stream().map(BatchIngestResponseDto.Rejection::getReason).toList());
+        assertTrue(eventRepository.existsById("E-CSV-1"));
+    }
+
+    @Test
+    @Transactional
+    @Rollback
+    void repeatedIdsInOneFileFollowSequentialRules() {
+
+        BatchIngestResponseDto response = loadNdjson(List.of(
+                event("E-ND-1", 1, now.minusSeconds(30)),
+                event("E-ND-1", 1, now.minusSeconds(30)),   // identical -> DEDUPED
+                event("E-ND-1", 4, now.minusSeconds(20)),   // newer -> UPDATED
+                event("E-ND-1", 9, now.minusSeconds(40)),   // older -> IGNORED
+                event("E-ND-2", 2, now.minusSeconds(30))));
+
+        assertEquals(2, response.getAccepted());
+        assertEquals(1, response.getDeduped());
+        assertEquals(1, response.getUpdated());
+        assertEquals(1, response.getIgnored());
+        assertEquals(4, eventRepository.findById("E-ND-1").orElseThrow().getDefectCount());
+        assertEquals(2, jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM event_changes WHERE event_id = 'E-ND-1'", Integer.class));
+    }
+
+    @Test
+    @Transactional
+    @Rollback
+    void bulkLoadMatchesBatchIngestOutcomes() {
+
+        List<EventRequestDto> events = List.of(
+                event("A", 1, now.minusSeconds(30)),
+                event("A", 1, now.minusSeconds(30)),
+                event("B", 1, now.minusSeconds(30)),
+                event("A", 3, now.minusSeconds(10)),
+                event("B", 5, now.minusSeconds(50)),
+                event("C", 0, now.minusSeconds(30)));
+
+        BatchIngestResponseDto api = ingestService.ingestBatch(withPrefix("E-PAR-API-", events));
+        BatchIngestResponseDto bulk = loadNdjson(withPrefix("E-PAR-BULK-", events));
+
+        assertEquals(api.getAccepted(), bulk.getAccepted());
+        assertEquals(api.getDeduped(), bulk.getDeduped());
+        assertEquals(api.getUpdated(), bulk.getUpdated());
+        assertEquals(api.getIgnored(), bulk.getIgnored());
+        assertEquals(api.getRejected(), bulk.getRejected());
+    }
+
+    @Test
+    @Transactional
+    @Rollback
+    void missingReceivedTimeFollowsFileOrderLikeBatchIngest() {
+
+        List<EventRequestDto> events = List.of(
+                event("A", 1, null),
+                event("A", 4, null),
+                event("B", 1, null),
+                event("A", 4, null),
+                event("B", 2, null));
+
+        BatchIngestResponseDto api = ingestService.ingestBatch(withPrefix("E-RCV-API-", events));
+        BatchIngestResponseDto bulk = loadNdjson(withPrefix("E-RCV-BULK-", events));
+
+        assertEquals(2, bulk.getAccepted());
+        assertEquals(2, bulk.getUpdated());
+        assertEquals(1, bulk.getDeduped());
+        assertEquals(api.getAccepted(), bulk.getAccepted());
+        assertEquals(api.getUpdated(), bulk.getUpdated());
+        assertEquals(api.getDeduped(), bulk.getDeduped());
+        assertEquals(api.getIgnored(), bulk.getIgnored());
+        assertEquals(4, eventRepository.findById("E-RCV-BULK-A").orElseThrow().getDefectCount());
+        assertEquals(2, eventRepository.findById("E-RCV-BULK-B").orElseThrow().getDefectCount());
+    }
+
+    @Test
+    @Transactional
+    @Rollback
+    void bulkPayloadHashMatchesApiIngest() {
+
+        EventRequestDto millis = event("E-HASH-1", 1, now.minusSeconds(30));
+        millis.setEventTime(Instant.parse("2026-01-15T10:15:30.120Z"));
+        EventRequestDto micros = event("E-HASH-2", 1, now.minusSeconds(30));
+        micros.setEventTime(Instant.parse("2026-01-15T10:15:30.123456Z"));
+        EventRequestDto wholeSecond = event("E-HASH-3", 1, now.minusSeconds(30));
+        wholeSecond.setEventTime(Instant.parse("2026-01-15T10:15:30Z"));
+        List<EventRequestDto> events = List.of(millis, micros, wholeSecond);
+
+        ingestService.ingestBatch(events);
+        BatchIngestResponseDto response = loadNdjson(events);
+
+        assertEquals(3, response.getDeduped());
+    }
+}
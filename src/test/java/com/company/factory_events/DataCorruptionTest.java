@@ -1,22 +1,33 @@
 package com.company.factory_events;
 
+import com.company.factory_events.dto.BatchIngestResponseDto;
 import com.company.factory_events.dto.EventRequestDto;
 import com.company.factory_events.repository.EventRepository;
 import com.company.factory_events.service.EventIngestService;
+import com.company.factory_events.service.EventSketchService;
 import com.company.factory_events.service.StatsService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.annotation.Rollback;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @SpringBootTest
 public class DataCorruptionTest {
@@ -27,6 +38,18 @@ public class DataCorruptionTest {
     @Autowired
     private EventRepository eventRepository;
 
+    @Autowired
+    private EventSketchService eventSketchService;
+
+    @Autowired
+    private StatsService statsService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     private EventRequestDto validEvent(String id) {
         EventRequestDto dto = new EventRequestDto();
         dto.setEventId(id);
@@ -63,4 +86,109 @@ public class DataCorruptionTest {
 
         assertEquals(1, eventRepository.count());
     }
+
+    /**
+     * Not transactional: the racing inserts must really commit, so the test
+     * removes its own rows.
+     */
+    @Test
+    void concurrentDuplicatesAreAcceptedAndSketchedOnce() throws Exception {
+
+        Instant hour = Instant.now().truncatedTo(ChronoUnit.HOURS).minus(2, ChronoUnit.HOURS);
+        EventRequestDto event = TestEvents.event("E-RACE", "M-RACE", "F-RACE");
+        event.setEventTime(hour.plusSeconds(60));
+
+        int threads = 10;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Callable<BatchIngestResponseDto>> tasks =
+                    Collections.nCopies(threads, () -> ingestService.ingestBatch(List.of(event)));
+
+            List<BatchIngestResponseDto> responses = new ArrayList<>();
+            for (Future<BatchIngestResponseDto> future : executor.invokeAll(tasks)) {
+                responses.add(future.get());
+            }
+
+            assertEquals(1, responses.stream().mapToInt(BatchIngestResponseDto::getAccepted).sum());
+            assertEquals(threads - 1, responses.stream().mapToInt(BatchIngestResponseDto::getDeduped).sum());
+            assertEquals(1, jdbcTemplate.queryForObject(
+                    "SELECT count(*) FROM event_changes WHERE event_id = 'E-RACE'", Integer.class));
+
+            eventSketchService.applyChanges();
+
+            assertEquals(1, statsService.getApproximateStats(
+                    "M-RACE", null, hour, hour.plus(1, ChronoUnit.HOURS)).getEventsCount());
+        } finally {
+            executor.shutdown();
+            TestEvents.deleteAll(jdbcTemplate, "F-RACE", "M-RACE");
+        }
+    }
+
+    /**
+     * A newer update holds the row while an older one arrives. The older one
+     * must wait for it and be ignored, not overwrite it with a change entry
+     * built from the row it read before.
+     */
+    @Test
+    void concurrentConflictingUpdatesApplyInReceivedOrder() throws Exception {
+
+        Instant received = Instant.now().minusSeconds(60);
+        EventRequestDto original = TestEvents.event("E-LOCK", "M-LOCK", "F-LOCK");
+        original.setReceivedTime(received);
+        EventRequestDto newer = TestEvents.event("E-LOCK", "M-LOCK", "F-LOCK");
+        newer.setEventTime(original.getEventTime());
+        newer.setDefectCount(5);
+        newer.setReceivedTime(received.plusSeconds(20));
+        EventRequestDto older = TestEvents.event("E-LOCK", "M-LOCK", "F-LOCK");
+        older.setEventTime(original.getEventTime());
+        older.setDefectCount(3);
+        older.setReceivedTime(received.plusSeconds(10));
+
+        CountDownLatch written = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        try {
+            ingestService.ingestBatch(List.of(original));
+
+            Future<?> holder = executor.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+                ingestService.ingestBatch(List.of(newer));
+                written.countDown();
+                try {
+                    release.await(30, TimeUnit.SECONDS);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+            assertTrue(written.await(30, TimeUnit.SECONDS));
+
+            Future<BatchIngestResponseDto> late = executor.submit(() -> ingestService.ingestBatch(List.of(older)));
+            awaitLockWait();
+            release.countDown();
+            holder.get(30, TimeUnit.SECONDS);
+
+            assertEquals(1, late.get(30, TimeUnit.SECONDS).getIgnored());
+            assertEquals(5, eventRepository.findById("E-LOCK").orElseThrow().getDefectCount());
+            assertEquals(List.of(1), jdbcTemplate.queryForList(
+                    "SELECT old_defect_count FROM event_changes WHERE event_id = 'E-LOCK' AND outcome = 'UPDATED'",
+                    Integer.class));
+        } finally {
+            release.countDown();
+            executor.shutdown();
+            TestEvents.deleteAll(jdbcTemplate, "F-LOCK", "M-LOCK");
+        }
+    }
+
+    /** Waits until some session is blocked on a row lock. */
+    private void awaitLockWait() throws InterruptedException {
+        for (int i = 0; i < 300; i++) {
+            Integer waiting = jdbcTemplate.queryForObject(
+                    "SELECT count(*) FROM pg_stat_activity WHERE wait_event_type = 'Lock'", Integer.class);
+            if (waiting != null && waiting > 0) {
+                return;
+            }
+            Thread.sleep(100);
+        }
+        throw new AssertionError("no session waited for the row lock");
+    }
 }
@@ -0,0 +1,171 @@
+package com.company.factory_events;
+
+import com.company.factory_events.dto.EventChangeDto;
+import com.company.factory_events.dto.EventChangesResponseDto;
+import com.company.factory_events.dto.EventRequestDto;
+import com.company.factory_events.service.BulkLoadService;
+import com.company.factory_events.service.EventChangeService;
+import com.company.factory_events.service.EventIngestService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The feed only shows committed transactions, so these tests commit their
+ * writes and clean up after themselves instead of rolling back.
+ */
+@SpringBootTest
+class EventChangeServiceTest {
+
+    @Autowired
+    private EventChangeService changeService;
+
+    @Autowired
+    private EventIngestService ingestService;
+
+    @Autowired
+    private BulkLoadService bulkLoadService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private String offset;
+
+    private EventRequestDto event(String id, int defectCount, Instant receivedTime) {
+        EventRequestDto dto = TestEvents.event(id, "M-FEED", "F-FEED");
+        dto.setDefectCount(defectCount);
+        dto.setReceivedTime(receivedTime);
+        return dto;
+    }
+
+    /** Polls until the feed is exhausted and returns every change seen. */
+    private List<EventChangeDto> drain(int pageSize) {
+        List<EventChangeDto> changes = new ArrayList<>();
+        while (true) {
+            EventChangesResponseDto page = changeService.poll(offset, pageSize);
+            if (page.getChanges().isEmpty()) {
+                assertEquals(offset, page.getNextOffset());
+                return changes;
+            }
+            changes.addAll(page.getChanges());
+            offset = page.getNextOffset();
+        }
+    }
+
+    private List<String> ids(List<EventChangeDto> changes) {
+        return changes.stream()
+                .map(EventChangeDto::getEventId)
+                .filter(id -> id.startsWith("E-FEED-"))
+                .toList();
+    }
+
+    @BeforeEach
+    void skipExistingChanges() {
+        offset = EventChangeService.START_OFFSET;
+        drain(1000);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        TestEvents.deleteAll(jdbcTemplate, "F-FEED", "M-FEED");
+    }
+
+    @Test
+    void offsetsContinueAcrossPollsWithoutGapsOrRepeats() {
+
+        for (int i = 1; i <= 5; i++) {
+            ingestService.ingestBatch(List.of(event("E-FEED-" + i, 1, null)));
+        }
+
+        List<EventChangeDto> changes = drain(2);
+
+        assertEquals(List.of("E-FEED-1", "E-FEED-2", "E-FEED-3", "E-FEED-4", "E-FEED-5"), ids(changes));
+        assertEquals(changes.size(), changes.stream().map(EventChangeDto::getOffset).distinct().count());
+    }
+
+    @Test
+    void openTransactionHoldsBackLaterCommits() throws Exception {
+
+        CountDownLatch written = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService writer = Executors.newSingleThreadExecutor();
+
+        try {
+            Future<?> open = writer.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+                ingestService.ingestBatch(List.of(event("E-FEED-HELD", 1, null)));
+                written.countDown();
+                try {
+                    release.await(30, TimeUnit.SECONDS);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+
+            assertTrue(written.await(30, TimeUnit.SECONDS));
+            ingestService.ingestBatch(List.of(event("E-FEED-LATER", 1, null)));
+
+            // LATER has committed, but sorts after the still-open HELD transaction.
+            assertEquals(List.of(), ids(drain(100)));
+
+            release.countDown();
+            open.get(30, TimeUnit.SECONDS);
+
+            assertEquals(List.of("E-FEED-HELD", "E-FEED-LATER"), ids(drain(100)));
+        } finally {
+            release.countDown();
+            writer.shutdown();
+        }
+    }
+
+    @Test
+    void bulkLoadsWriteChangeEntries() {
+
+        Instant received = Instant.now().minusSeconds(30);
+        String ndjson = List.of(
+                        event("E-FEED-B1", 1, received),
+                        event("E-FEED-B2", 2, received),
+                        event("E-FEED-B1", 6, received.plusSeconds(5)))
+                .stream()
+                .map(objectMapper::writeValueAsString)
+                .collect(Collectors.joining("\n"));
+
+        bulkLoadService.load(new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)),
+                BulkLoadService.Format.NDJSON);
+
+        List<EventChangeDto> changes = drain(100).stream()
+                .filter(change -> change.getEventId().startsWith("E-FEED-"))
+                .toList();
+
+        assertEquals(List.of("E-FEED-B1", "E-FEED-B2", "E-FEED-B1"), ids(changes));
+        assertEquals(List.of("ACCEPTED", "ACCEPTED", "UPDATED"),
+                changes.stream().map(EventChangeDto::getOutcome).toList());
+        assertNull(changes.get(0).getOldDefectCount());
+        assertEquals(1, changes.get(2).getOldDefectCount());
+        assertEquals(6, changes.get(2).getNewDefectCount());
+    }
+}
@@ -0,0 +1,100 @@
+package com.company.factory_events;
+
+import com.company.factory_events.dto.EventExportDto;
+import com.company.factory_events.dto.EventRequestDto;
+import com.company.factory_events.service.EventExportService;
+import com.company.factory_events.service.EventIngestService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.Rollback;
+import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class EventExportServiceTest {
+
+    @Autowired
+    private EventExportService exportService;
+
+    @Autowired
+    private EventIngestService ingestService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final Instant sameTime = Instant.now().minusSeconds(600).truncatedTo(ChronoUnit.MILLIS);
+
+    /** Five events sharing one event_time, so every page boundary is an event_id tie. */
+    private void ingestTiedEvents() {
+        List<EventRequestDto> events = new ArrayList<>();
+        for (String suffix : List.of("C", "A", "E", "B", "D")) {
+            EventRequestDto dto = TestEvents.event("E-EXP-" + suffix, "M-EXPORT", "F01");
+            dto.setEventTime(sameTime);
+            dto.setLineId("L-EXPORT");
+            events.add(dto);
+        }
+        ingestService.ingestBatch(events);
+    }
+
+    private List<EventExportDto> export(String machineId, String lineId, String after, Integer pageSize, Long limit) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.export(machineId, lineId, null, null, after, pageSize, limit, out);
+
+        List<EventExportDto> lines = new ArrayList<>();
+        for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+            if (!line.isBlank()) {
+                lines.add(objectMapper.readValue(line, EventExportDto.class));
+            }
+        }
+        return lines;
+    }
+
+    private List<String> ids(List<EventExportDto> events) {
+        return events.stream().map(EventExportDto::getEventId).toList();
+    }
+
+    @Test
+    @Transactional
+    @Rollback
+    void pagesSplitEqualEventTimesWithoutGapsOrRepeats() {
+
+        ingestTiedEvents();
+
+        List<String> expected = List.of("E-EXP-A", "E-EXP-B", "E-EXP-C", "E-EXP-D", "E-EXP-E");
+
+        assertEquals(expected, ids(export("M-EXPORT", null, null, 2, null)));
+        assertEquals(expected, ids(export(null, "L-EXPORT", null, 2, null)));
+        assertEquals(expected, ids(export("M-EXPORT", null, null, 1, null)));
+    }
+
+    @Test
+    @Transactional
+    @Rollback
+    void cursorResumesAfterTheLastEventReceived() {
+
+        ingestTiedEvents();
+
+        List<EventExportDto> firstPart = export("M-EXPORT", null, null, 2, 3L);
+        assertEquals(List.of("E-EXP-A", "E-EXP-B", "E-EXP-C"), ids(firstPart));
+
+        String cursor = firstPart.get(firstPart.size() - 1).getCursor();
+        assertEquals(List.of("E-EXP-D", "E-EXP-E"), ids(export("M-EXPORT", null, cursor, 2, null)));
+        assertEquals(List.of("E-EXP-D", "E-EXP-E"), ids(export(null, "L-EXPORT", cursor, 10, null)));
+    }
+
+    @Test
+    void malformedCursorIsRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> exportService.validate(null, null, "not-a-cursor"));
+    }
+}
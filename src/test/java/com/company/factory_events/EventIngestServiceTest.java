@@ -90,6 +90,22 @@ class EventIngestServiceTest {
         assertEquals(1, stored.getDefectCount());
     }
 
+    @Test
+    @Transactional
+    @Rollback
+    void sameEventIdTwiceInOneBatchMatchesSequentialOutcome() {
+
+        EventRequestDto first = validEvent("E-8");
+        EventRequestDto repeat = validEvent("E-8");
+        repeat.setEventTime(first.getEventTime());
+
+        var response = ingestService.ingestBatch(List.of(first, repeat));
+
+        assertEquals(1, response.getAccepted());
+        assertEquals(1, response.getDeduped());
+        assertEquals(1, eventRepository.count());
+    }
+
     @Test
     @Transactional
     @Rollback
@@ -162,6 +178,26 @@ class EventIngestServiceTest {
         assertEquals(1, stats.getEventsCount());
     }
 
+    @Test
+    @Transactional
+    @Rollback
+    void statsReportDurationPercentiles() {
 
+        for (int i = 1; i <= 100; i++) {
+            EventRequestDto event = validEvent("E-P" + i);
+            event.setMachineId("M-PCT");
+            event.setDurationMs(i * 100L);
+            ingestService.ingestBatch(List.of(event));
+        }
+
+        var stats = statsService.getStats(
+                "M-PCT",
+                Instant.now().minusSeconds(3600),
+                Instant.now()
+        );
+
+        assertEquals(5000, stats.getDurationP50Ms(), 50);
+        assertEquals(9900, stats.getDurationP99Ms(), 50);
+    }
 
 }
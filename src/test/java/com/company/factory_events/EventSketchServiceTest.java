@@ -0,0 +1,203 @@
+package com.company.factory_events;
+
+import com.company.factory_events.dto.EventRequestDto;
+import com.company.factory_events.service.EventIngestService;
+import com.company.factory_events.service.EventSketchService;
+import com.company.factory_events.service.StatsService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Sketches are applied from committed changes, so these tests commit their
+ * events and clean up after themselves instead of rolling back.
+ */
+@SpringBootTest
+class EventSketchServiceTest {
+
+    @Autowired
+    private EventIngestService ingestService;
+
+    @Autowired
+    private EventSketchService eventSketchService;
+
+    @Autowired
+    private StatsService statsService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final Instant hour = Instant.now().truncatedTo(ChronoUnit.HOURS).minus(3, ChronoUnit.HOURS);
+
+    private EventRequestDto event(String id, Instant eventTime, long durationMs) {
+        EventRequestDto dto = TestEvents.event(id, "M-SKETCH", "F-SKETCH");
+        dto.setEventTime(eventTime);
+        dto.setDurationMs(durationMs);
+        return dto;
+    }
+
+    private long sketchedEvents(Instant start, Instant end) {
+        return statsService.getApproximateStats("M-SKETCH", null, start, end).getEventsCount();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        TestEvents.deleteAll(jdbcTemplate, "F-SKETCH", "M-SKETCH");
+    }
+
+    @Test
+    void approximateStatsComeFromSketchesWithErrorBounds() {
+
+        ingestService.ingestBatch(List.of(
+                event("E-SK-1", hour.plusSeconds(600), 1000),
+                event("E-SK-2", hour.plusSeconds(900), 3000)));
+        eventSketchService.applyChanges();
+
+        var stats = statsService.getApproximateStats(
+                "M-SKETCH",
+                null,
+                hour,
+                hour.plus(1, ChronoUnit.HOURS)
+        );
+
+        assertEquals(2, stats.getEventsCount());
+        assertEquals(3000, stats.getDurationP99Ms(), 3000 * stats.getDurationRelativeError());
+        assertTrue(stats.getDurationRelativeError() > 0);
+    }
+
+    @Test
+    void rolledBackIngestIsNotSketched() {
+
+        transactionTemplate.executeWithoutResult(status -> {
+            ingestService.ingestBatch(List.of(event("E-SK-3", hour.plusSeconds(600), 1000)));
+            status.setRollbackOnly();
+        });
+        eventSketchService.applyChanges();
+
+        assertEquals(0, sketchedEvents(hour, hour.plus(1, ChronoUnit.HOURS)));
+    }
+
+    @Test
+    void updateMovesEventBetweenBuckets() {
+
+        Instant nextHour = hour.plus(1, ChronoUnit.HOURS);
+
+        EventRequestDto original = event("E-SK-4", hour.plusSeconds(600), 1000);
+        original.setReceivedTime(Instant.now().minusSeconds(10));
+        ingestService.ingestBatch(List.of(original));
+        eventSketchService.applyChanges();
+
+        EventRequestDto moved = event("E-SK-4", nextHour.plusSeconds(600), 2000);
+        moved.setReceivedTime(Instant.now());
+        ingestService.ingestBatch(List.of(moved));
+        eventSketchService.applyChanges();
+
+        assertEquals(0, sketchedEvents(hour, nextHour));
+        assertEquals(1, sketchedEvents(nextHour, nextHour.plus(1, ChronoUnit.HOURS)));
+    }
+
+    @Test
+    void backfillCoversEventsWrittenBeforeSketching() {
+
+        ingestService.ingestBatch(List.of(
+                event("E-SK-5", hour.plusSeconds(600), 1000),
+                event("E-SK-6", hour.plusSeconds(700), 1000)));
+        eventSketchService.applyChanges();
+
+        jdbcTemplate.update("DELETE FROM sketch_progress");
+        jdbcTemplate.update("DELETE FROM event_sketches WHERE scope_id IN ('M-SKETCH', 'F-SKETCH')");
+        eventSketchService.applyChanges();
+
+        assertEquals(2, sketchedEvents(hour, hour.plus(1, ChronoUnit.HOURS)));
+    }
+
+    @Test
+    void statsPercentilesMergeSketchedHours() {
+
+        List<EventRequestDto> events = new ArrayList<>();
+        for (int i = 1; i <= 100; i++) {
+            events.add(event("E-SK-P" + i, hour.plusSeconds(i * 30L), i * 100L));
+        }
+        ingestService.ingestBatch(events);
+        eventSketchService.applyChanges();
+
+        // One raw edge hour before, two sketched hours, no raw edge after.
+        var stats = statsService.getStats(
+                "M-SKETCH",
+                hour.minusSeconds(1800),
+                hour.plus(2, ChronoUnit.HOURS)
+        );
+
+        assertEquals(100, stats.getEventsCount());
+        assertEquals(5000, stats.getDurationP50Ms(), 50);
+        assertEquals(9900, stats.getDurationP99Ms(), 50);
+    }
+
+    /**
+     * Ten days of history, half of it not applied to the sketches yet,
+     * including updates that move durations. Percentiles must combine the
+     * applied sketches with the pending changes, without reading the
+     * window's rows.
+     */
+    @Test
+    void statsPercentilesIncludePendingChangesOverManyDays() {
+
+        Instant base = Instant.now().truncatedTo(ChronoUnit.HOURS).minus(11, ChronoUnit.DAYS);
+        Instant received = Instant.now().minusSeconds(60);
+
+        List<EventRequestDto> applied = new ArrayList<>();
+        for (int i = 1; i <= 100; i++) {
+            EventRequestDto dto = event("E-SK-D" + i, base.plus(2L * i, ChronoUnit.HOURS), i * 100L);
+            dto.setReceivedTime(received);
+            applied.add(dto);
+        }
+        ingestService.ingestBatch(applied);
+        eventSketchService.applyChanges();
+
+        List<EventRequestDto> pending = new ArrayList<>();
+        for (int i = 101; i <= 200; i++) {
+            pending.add(event("E-SK-D" + i, base.plus(2L * (i - 100) + 1, ChronoUnit.HOURS), i * 100L));
+        }
+        for (int i = 1; i <= 50; i++) {
+            // 100..5000 ms become 30000 ms.
+            EventRequestDto update = event("E-SK-D" + i, base.plus(2L * i, ChronoUnit.HOURS), 30_000);
+            update.setReceivedTime(received.plusSeconds(30));
+            pending.add(update);
+        }
+        ingestService.ingestBatch(pending);
+
+        // Rows written without a change entry are invisible to sketches and
+        // pending changes alike; a full scan of the window would count them.
+        jdbcTemplate.update("""
+                INSERT INTO events (event_id, machine_id, event_time, received_time,
+                                    duration_ms, defect_count, payload_hash, factory_id, line_id)
+                SELECT 'E-SK-RAW-' || g, 'M-SKETCH', ?, now(), 1, 0, 'raw-' || g, 'F-SKETCH', 'L01'
+                FROM generate_series(1, 9) g
+                """, Timestamp.from(base.plus(5, ChronoUnit.DAYS).plusSeconds(600)));
+
+        var stats = statsService.getStats(
+                "M-SKETCH",
+                base.minusSeconds(1800),
+                base.plus(10, ChronoUnit.DAYS)
+        );
+
+        // 5100..20000 ms in steps of 100, then 50 x 30000 ms.
+        assertEquals(209, stats.getEventsCount());
+        assertEquals(15000, stats.getDurationP50Ms(), 150);
+        assertEquals(30000, stats.getDurationP99Ms(), 150);
+    }
+}
@@ -0,0 +1,97 @@
+package com.company.factory_events;
+
+import com.company.factory_events.dto.BatchIngestResponseDto;
+import com.company.factory_events.dto.EventRequestDto;
+import com.company.factory_events.repository.EventRepository;
+import com.company.factory_events.service.EventIngestService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Small chunks force batches onto the parallel path. Executor workers commit
+ * in their own transactions, so the test removes its own rows.
+ */
+@SpringBootTest(properties = {"ingest.min-chunk-size=10", "ingest.parallelism=10"})
+class ParallelIngestTest {
+
+    @Autowired
+    private EventIngestService ingestService;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final Instant received = Instant.now().minusSeconds(30);
+
+    private EventRequestDto event(String id, long durationMs, int defectCount, Instant receivedTime) {
+        EventRequestDto dto = TestEvents.event(id, "M-PARALLEL", "F-PARALLEL");
+        dto.setDurationMs(durationMs);
+        dto.setDefectCount(defectCount);
+        dto.setReceivedTime(receivedTime);
+        return dto;
+    }
+
+    @AfterEach
+    void cleanUp() {
+        TestEvents.deleteAll(jdbcTemplate, "F-PARALLEL", "M-PARALLEL");
+    }
+
+    @Test
+    void parallelChunksMatchSequentialOutcome() {
+
+        List<EventRequestDto> events = new ArrayList<>();
+        List<String> expectedRejections = new ArrayList<>();
+
+        for (int i = 0; i < 200; i++) {
+            events.add(event("E-PL-" + i, 1000, 1, received));
+            if (i % 20 == 5) {
+                events.add(event("E-PL-BAD-" + i, -1, 1, received));
+                expectedRejections.add("E-PL-BAD-" + i);
+            }
+            if (i >= 10 && i % 25 == 0) {
+                // Same id again, later in the batch: identical, then newer.
+                events.add(event("E-PL-" + (i - 10), 1000, 1, received));
+                events.add(event("E-PL-" + (i - 10), 1000, 7, received.plusSeconds(10)));
+            }
+        }
+
+        BatchIngestResponseDto response = ingestService.ingestBatch(events);
+
+        assertEquals(200, response.getAccepted());
+        assertEquals(7, response.getDeduped());
+        assertEquals(7, response.getUpdated());
+        assertEquals(0, response.getIgnored());
+        assertEquals(10, response.getRejected());
+        assertEquals(expectedRejections,
+                response.getRejections().stream().map(BatchIngestResponseDto.Rejection::getEventId).toList());
+        assertEquals(7, eventRepository.findById("E-PL-15").orElseThrow().getDefectCount());
+        assertEquals(1, eventRepository.findById("E-PL-16").orElseThrow().getDefectCount());
+    }
+
+    @Test
+    void olderRepeatLaterInTheBatchIsIgnored() {
+
+        List<EventRequestDto> events = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            events.add(event("E-PL-" + i, 1000, 1, received));
+        }
+        events.add(event("E-PL-3", 1000, 9, received.minusSeconds(10)));
+
+        BatchIngestResponseDto response = ingestService.ingestBatch(events);
+
+        assertEquals(100, response.getAccepted());
+        assertEquals(1, response.getIgnored());
+        assertEquals(1, eventRepository.findById("E-PL-3").orElseThrow().getDefectCount());
+    }
+}
@@ -0,0 +1,203 @@
+package com.company.factory_events;
+
+import com.company.factory_events.admission.AdmissionControl;
+import com.company.factory_events.admission.AdmissionRejectedException;
+import com.company.factory_events.cluster.ConsistentHashRing;
+import com.company.factory_events.dto.BatchIngestResponseDto;
+import com.company.factory_events.dto.EventRequestDto;
+import com.company.factory_events.repository.EventRepository;
+import com.company.factory_events.service.EventIngestService;
+import com.company.factory_events.service.PartitionedIngestService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.test.annotation.Rollback;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.client.RestClient;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+
+@SpringBootTest
+class PartitionedIngestServiceTest {
+
+    private static final String SELF = "http://self.invalid";
+    private static final String UNREACHABLE = "http://127.0.0.1:1";
+    private static final String OWNER = "http://owner.invalid";
+
+    @Autowired
+    private EventIngestService eventIngestService;
+
+    @Autowired
+    private AdmissionControl admissionControl;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private RestClient clusterRestClient;
+
+    @Autowired
+    @Qualifier("clusterForwardExecutor")
+    private ExecutorService clusterForwardExecutor;
+
+    private EventRequestDto event(String id, long durationMs) {
+        EventRequestDto dto = TestEvents.event(id, "M-001", "F01");
+        dto.setDurationMs(durationMs);
+        return dto;
+    }
+
+    /**
+     * Local invalid events and the events of an unreachable owner are
+     * rejected by different parts; the merged rejections must still follow
+     * the original batch order.
+     */
+    @Test
+    @Transactional
+    @Rollback
+    void rejectionsFromAllPartsComeBackInBatchOrder() {
+
+        ConsistentHashRing ring = new ConsistentHashRing(List.of(SELF, UNREACHABLE), 128);
+        PartitionedIngestService service = new PartitionedIngestService(
+                eventIngestService, ring, clusterRestClient, clusterForwardExecutor, SELF);
+
+        List<EventRequestDto> events = new ArrayList<>();
+        List<String> expectedReasons = new ArrayList<>();
+        List<String> expectedIds = new ArrayList<>();
+        int expectedAccepted = 0;
+
+        for (int i = 0; i < 40; i++) {
+            String id = "E-PT-" + i;
+            boolean invalid = i % 7 == 3;
+            events.add(event(id, invalid ? -1 : 1000));
+
+            if (ring.ownerOf(id).equals(UNREACHABLE)) {
+                expectedIds.add(id);
+                expectedReasons.add("OWNER_UNAVAILABLE");
+            } else if (invalid) {
+                expectedIds.add(id);
+                expectedReasons.add("INVALID_DURATION");
+            } else {
+                expectedAccepted++;
+            }
+        }
+
+        assertTrue(expectedReasons.contains("OWNER_UNAVAILABLE"));
+        assertTrue(expectedReasons.contains("INVALID_DURATION"));
+
+        BatchIngestResponseDto response = service.ingestBatch(events, admissionControl.admitForwarded());
+
+        assertEquals(expectedAccepted, response.getAccepted());
+        assertEquals(expectedIds.size(), response.getRejected());
+        assertEquals(expectedIds,
+                response.getRejections().stream().map(BatchIngestResponseDto.Rejection::getEventId).toList());
+        assertEquals(expectedReasons,
+                response.getRejections().stream().map(BatchIngestResponseDto.Rejection::getReason).toList());
+    }
+
+    /**
+     * An owner shedding its part turns the whole request into a 429 carrying
+     * the owner's Retry-After, so the client backs off instead of reading
+     * per-event rejections.
+     */
+    @Test
+    @Transactional
+    @Rollback
+    void ownerSheddingLoadIsPropagatedAsRejection() {
+
+        RestClient.Builder builder = RestClient.builder();
+        MockRestServiceServer owner = MockRestServiceServer.bindTo(builder).build();
+        owner.expect(requestTo(OWNER + "/events/batch/owned"))
+                .andExpect(method(HttpMethod.POST))
+                .andRespond(withStatus(HttpStatus.TOO_MANY_REQUESTS).header(HttpHeaders.RETRY_AFTER, "7"));
+
+        ConsistentHashRing ring = new ConsistentHashRing(List.of(SELF, OWNER), 128);
+        PartitionedIngestService service = new PartitionedIngestService(
+                eventIngestService, ring, builder.build(), clusterForwardExecutor, SELF);
+
+        List<EventRequestDto> events = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            events.add(event("E-PT-SHED-" + i, 1000));
+        }
+        assertTrue(events.stream().anyMatch(e -> ring.ownerOf(e.getEventId()).equals(OWNER)));
+
+        AdmissionRejectedException rejected = assertThrows(AdmissionRejectedException.class,
+                () -> service.ingestBatch(events, admissionControl.admitForwarded()));
+
+        assertEquals(7, rejected.getRetryAfterSeconds());
+        owner.verify();
+    }
+
+    /**
+     * A second instance on a random port owns part of the batch. Its part
+     * goes through the real {@code /events/batch/owned} endpoint and JSON
+     * round trip. Both instances commit, so the test removes its own rows.
+     */
+    @Test
+    void liveOwnerResultIsMergedInBatchOrder() {
+
+        try (ConfigurableApplicationContext ownerContext = new SpringApplicationBuilder(FactoryEventsApplication.class)
+                .run("--server.port=0")) {
+
+            String owner = "http://localhost:" + ownerContext.getEnvironment().getProperty("local.server.port");
+            ConsistentHashRing ring = new ConsistentHashRing(List.of(SELF, owner), 128);
+            PartitionedIngestService service = new PartitionedIngestService(
+                    eventIngestService, ring, clusterRestClient, clusterForwardExecutor, SELF);
+
+            List<EventRequestDto> events = new ArrayList<>();
+            List<String> expectedIds = new ArrayList<>();
+            int remoteEvents = 0;
+
+            for (int i = 0; i < 40; i++) {
+                String id = "E-PT-LIVE-" + i;
+                boolean invalid = i % 5 == 2;
+                EventRequestDto dto = TestEvents.event(id, "M-PT-LIVE", "F-PT-LIVE");
+                dto.setDurationMs(invalid ? -1 : 1000);
+                events.add(dto);
+                if (invalid) {
+                    expectedIds.add(id);
+                }
+                if (ring.ownerOf(id).equals(owner)) {
+                    remoteEvents++;
+                }
+            }
+            // The first event again, unchanged: the owner of its id dedupes it.
+            events.add(TestEvents.event("E-PT-LIVE-0", "M-PT-LIVE", "F-PT-LIVE"));
+            events.get(events.size() - 1).setEventTime(events.get(0).getEventTime());
+
+            assertTrue(remoteEvents > 0 && remoteEvents < 40);
+
+            BatchIngestResponseDto response = service.ingestBatch(events, admissionControl.admitForwarded());
+
+            assertEquals(32, response.getAccepted());
+            assertEquals(1, response.getDeduped());
+            assertEquals(8, response.getRejected());
+            assertEquals(expectedIds,
+                    response.getRejections().stream().map(BatchIngestResponseDto.Rejection::getEventId).toList());
+            assertTrue(response.getRejections().stream()
+                    .allMatch(rejection -> rejection.getReason().equals("INVALID_DURATION")));
+            assertEquals(32, eventRepository.countByMachineIdAndEventTimeGreaterThanEqualAndEventTimeLessThan(
+                    "M-PT-LIVE", Instant.EPOCH, Instant.now().plusSeconds(60)));
+        } finally {
+            TestEvents.deleteAll(jdbcTemplate, "F-PT-LIVE", "M-PT-LIVE");
+        }
+    }
+}
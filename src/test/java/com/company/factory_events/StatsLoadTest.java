@@ -0,0 +1,135 @@
+package com.company.factory_events;
+
+import com.company.factory_events.dto.EventRequestDto;
+import com.company.factory_events.service.BulkLoadService;
+import com.company.factory_events.service.EventIngestService;
+import com.company.factory_events.service.EventSketchService;
+import com.company.factory_events.service.StatsService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Ingest latency must not depend on stats traffic: stats run on their own
+ * pool and, for whole hours, read sketches instead of scanning events.
+ * Commits 100k rows and compares wall-clock latencies, so it runs only when
+ * selected explicitly: {@code mvn test -Dtest=StatsLoadTest}.
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "test", matches = ".*StatsLoadTest.*")
+class StatsLoadTest {
+
+    private static final int INGEST_REQUESTS = 200;
+    private static final int STATS_THREADS = 8;
+    private static final int SEED_EVENTS = 100_000;
+
+    @Autowired
+    private EventIngestService ingestService;
+
+    @Autowired
+    private StatsService statsService;
+
+    @Autowired
+    private BulkLoadService bulkLoadService;
+
+    @Autowired
+    private EventSketchService eventSketchService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /** 100k events over the last ~23 days, loaded with change entries and sketched. */
+    @BeforeEach
+    void seedHistory() {
+        Instant now = Instant.now();
+        StringBuilder csv = new StringBuilder(SEED_EVENTS * 80)
+                .append("eventId,machineId,eventTime,durationMs,defectCount,receivedTime,factoryId,lineId\n");
+        for (int i = 1; i <= SEED_EVENTS; i++) {
+            csv.append("E-LOAD-").append(i).append(",M-LOAD,").append(now.minusSeconds(20L * i))
+                    .append(',').append(i % 5000).append(',').append(i % 3).append(",,F-LOAD,L01\n");
+        }
+        bulkLoadService.load(new ByteArrayInputStream(csv.toString().getBytes(StandardCharsets.UTF_8)),
+                BulkLoadService.Format.CSV);
+        eventSketchService.applyChanges();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        TestEvents.deleteAll(jdbcTemplate, "F-LOAD", "M-LOAD", "M-LOAD-INGEST");
+    }
+
+    private long[] ingestLatencies(String prefix) {
+        long[] latencies = new long[INGEST_REQUESTS];
+        for (int i = 0; i < INGEST_REQUESTS; i++) {
+            EventRequestDto dto = TestEvents.event(prefix + i, "M-LOAD-INGEST", "F-LOAD");
+
+            long started = System.nanoTime();
+            ingestService.ingestBatch(List.of(dto));
+            latencies[i] = System.nanoTime() - started;
+        }
+        return latencies;
+    }
+
+    private long p99Millis(long[] latencies) {
+        long[] sorted = latencies.clone();
+        Arrays.sort(sorted);
+        return Duration.ofNanos(sorted[(int) Math.ceil(sorted.length * 0.99) - 1]).toMillis();
+    }
+
+    @Test
+    void ingestP99StaysFlatUnderStatsLoad() throws Exception {
+
+        long idleP99 = p99Millis(ingestLatencies("E-LOAD-IDLE-"));
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        ExecutorService statsLoad = Executors.newFixedThreadPool(STATS_THREADS);
+        List<Future<Integer>> readers = new ArrayList<>();
+        for (int t = 0; t < STATS_THREADS; t++) {
+            readers.add(statsLoad.submit(() -> {
+                int queries = 0;
+                while (running.get()) {
+                    statsService.getStats("M-LOAD", Instant.now().minus(Duration.ofDays(30)), Instant.now());
+                    queries++;
+                }
+                return queries;
+            }));
+        }
+
+        long loadedP99;
+        int statsQueries = 0;
+        try {
+            loadedP99 = p99Millis(ingestLatencies("E-LOAD-BUSY-"));
+        } finally {
+            running.set(false);
+            for (Future<Integer> reader : readers) {
+                statsQueries += reader.get();
+            }
+            statsLoad.shutdown();
+        }
+
+        System.out.printf("ingest p99 idle=%dms, under %d stats queries=%dms%n",
+                idleP99, statsQueries, loadedP99);
+
+        assertTrue(statsQueries > 0);
+        assertTrue(loadedP99 <= Math.max(3 * idleP99, idleP99 + 100),
+                "ingest p99 grew from " + idleP99 + "ms to " + loadedP99 + "ms under stats load");
+    }
+}
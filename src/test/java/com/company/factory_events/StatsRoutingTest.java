@@ -0,0 +1,75 @@
+package com.company.factory_events;
+
+import com.company.factory_events.config.ReplicaLagMonitor;
+import com.company.factory_events.service.StatsService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The "replica" is the test database reached through a URL that tags its
+ * sessions, so each transaction can tell which pool served it.
+ */
+@SpringBootTest(properties = {
+        "stats.datasource.replica=true",
+        "stats.datasource.url=${spring.datasource.url}?ApplicationName=" + StatsRoutingTest.REPLICA
+})
+class StatsRoutingTest {
+
+    static final String REPLICA = "stats-replica";
+
+    @Autowired
+    private ReplicaLagMonitor replicaLagMonitor;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private StatsService statsService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private String servedBy(boolean readOnly) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(readOnly);
+        return transaction.execute(status ->
+                jdbcTemplate.queryForObject("SELECT current_setting('application_name')", String.class));
+    }
+
+    @AfterEach
+    void resetMonitor() {
+        replicaLagMonitor.check();
+    }
+
+    @Test
+    void readOnlyTransactionsUseTheReplicaWhileItIsFresh() {
+
+        replicaLagMonitor.check();
+
+        assertTrue(replicaLagMonitor.isReplicaUsable());
+        assertEquals(REPLICA, servedBy(true));
+        assertNotEquals(REPLICA, servedBy(false));
+        assertEquals(0, statsService.getStats("M-ROUTE", Instant.now().minusSeconds(3600), Instant.now())
+                .getEventsCount());
+    }
+
+    @Test
+    void readsFallBackToThePrimaryWhenTheReplicaIsUnusable() {
+
+        replicaLagMonitor.check();
+        ReflectionTestUtils.setField(replicaLagMonitor, "replicaUsable", false);
+
+        assertNotEquals(REPLICA, servedBy(true));
+        assertNotEquals(REPLICA, servedBy(false));
+    }
+}
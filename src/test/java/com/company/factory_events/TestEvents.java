@@ -0,0 +1,54 @@
+package com.company.factory_events;
+
+import com.company.factory_events.dto.EventRequestDto;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Event builder and cleanup shared by the tests that commit their writes.
+ * Each such test class works under its own machine and factory ids and
+ * removes everything written under them afterwards.
+ */
+final class TestEvents {
+
+    private TestEvents() {
+    }
+
+    /** A valid event from a minute ago: 1000 ms, one defect, line L01. */
+    static EventRequestDto event(String eventId, String machineId, String factoryId) {
+        EventRequestDto dto = new EventRequestDto();
+        dto.setEventId(eventId);
+        dto.setMachineId(machineId);
+        dto.setEventTime(Instant.now().minusSeconds(60));
+        dto.setDurationMs(1000);
+        dto.setDefectCount(1);
+        dto.setFactoryId(factoryId);
+        dto.setLineId("L01");
+        return dto;
+    }
+
+    /**
+     * Deletes the events of the given machines, their change entries and the
+     * machine and factory sketches.
+     */
+    static void deleteAll(JdbcTemplate jdbcTemplate, String factoryId, String... machineIds) {
+        String machines = String.join(", ", Collections.nCopies(machineIds.length, "?"));
+
+        List<Object> scopeIds = new ArrayList<>(Arrays.asList(machineIds));
+        scopeIds.add(factoryId);
+        List<Object> changeArgs = new ArrayList<>(Arrays.asList(machineIds));
+        changeArgs.addAll(Arrays.asList(machineIds));
+
+        jdbcTemplate.update("DELETE FROM events WHERE machine_id IN (" + machines + ")",
+                (Object[]) machineIds);
+        jdbcTemplate.update("DELETE FROM event_changes WHERE machine_id IN (" + machines + ")"
+                + " OR old_machine_id IN (" + machines + ")", changeArgs.toArray());
+        jdbcTemplate.update("DELETE FROM event_sketches WHERE scope_id IN (" + machines + ", ?)",
+                scopeIds.toArray());
+    }
+}
@@ -0,0 +1,111 @@
+package com.company.factory_events.admission;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long MILLIS = 1_000_000L;
+
+    /** Runs {@code windows} full sample windows with the given slots held. */
+    private void run(AdaptiveConcurrencyLimiter limiter, int windows, int concurrency,
+                     long latencyNanos, boolean didDatabaseWork) {
+        for (int i = 0; i < windows * AdaptiveConcurrencyLimiter.WINDOW_SAMPLES; i++) {
+            int held = 0;
+            while (held < concurrency && limiter.tryAcquire()) {
+                held++;
+            }
+            for (int j = 0; j < held; j++) {
+                limiter.release(latencyNanos, didDatabaseWork, false);
+            }
+        }
+    }
+
+    @Test
+    void acquireStopsAtTheLimit() {
+
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(3, 2, 50, 2.0);
+
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+
+        limiter.release(10 * MILLIS, true, false);
+        assertTrue(limiter.tryAcquire());
+        assertEquals(3, limiter.getInFlight());
+    }
+
+    @Test
+    void growsWhileSaturatedAndLatencyIsSteady() {
+
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 2, 50, 2.0);
+
+        run(limiter, 30, 50, 20 * MILLIS, true);
+
+        assertTrue(limiter.getLimit() > 10, "limit " + limiter.getLimit());
+        assertTrue(limiter.getLimit() <= 50);
+    }
+
+    @Test
+    void doesNotGrowWhenTheLimitIsNotInUse() {
+
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 2, 50, 2.0);
+
+        run(limiter, 30, 1, 20 * MILLIS, true);
+
+        assertEquals(10, limiter.getLimit());
+    }
+
+    @Test
+    void backsOffWhenLatencyClimbsPastTolerance() {
+
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(20, 2, 50, 2.0);
+
+        run(limiter, 5, 1, 20 * MILLIS, true);
+        run(limiter, 3, 1, 100 * MILLIS, true);
+
+        assertTrue(limiter.getLimit() < 20, "limit " + limiter.getLimit());
+        assertTrue(limiter.getLimit() >= 2);
+    }
+
+    @Test
+    void failureBacksOffImmediately() {
+
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(20, 2, 50, 2.0);
+
+        assertTrue(limiter.tryAcquire());
+        limiter.release(1 * MILLIS, true, true);
+
+        assertEquals(18, limiter.getLimit());
+    }
+
+    @Test
+    void requestsWithoutDatabaseWorkDoNotMoveTheBaseline() {
+
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(20, 2, 50, 2.0);
+
+        run(limiter, 5, 1, 20 * MILLIS, true);
+        run(limiter, 50, 1, 10_000L, false);
+        run(limiter, 5, 1, 25 * MILLIS, true);
+
+        assertEquals(20, limiter.getLimit());
+    }
+
+    @Test
+    void neverLeavesTheConfiguredRange() {
+
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 4, 12, 2.0);
+
+        run(limiter, 5, 1, 10 * MILLIS, true);
+        for (int i = 0; i < 100; i++) {
+            assertTrue(limiter.tryAcquire());
+            limiter.release(1 * MILLIS, true, true);
+        }
+        assertEquals(4, limiter.getLimit());
+
+        run(limiter, 200, 50, 10 * MILLIS, true);
+        assertEquals(12, limiter.getLimit());
+    }
+}
@@ -0,0 +1,68 @@
+package com.company.factory_events.admission;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    @Test
+    void refillsAtTheConfiguredRate() {
+
+        TokenBucket bucket = new TokenBucket(100, 10, 0);
+
+        assertEquals(0, bucket.tryConsume(100, 0));
+        assertEquals(SECOND, bucket.tryConsume(10, 0));
+        assertEquals(0, bucket.tryConsume(10, SECOND));
+        assertTrue(bucket.tryConsume(1, SECOND) > 0);
+    }
+
+    @Test
+    void refillNeverExceedsCapacity() {
+
+        TokenBucket bucket = new TokenBucket(100, 10, 0);
+
+        assertEquals(0, bucket.tryConsume(100, 3600 * SECOND));
+        assertTrue(bucket.tryConsume(1, 3600 * SECOND) > 0);
+    }
+
+    @Test
+    void refundReturnsTokensUpToCapacity() {
+
+        TokenBucket bucket = new TokenBucket(100, 10, 0);
+
+        assertEquals(0, bucket.tryConsume(100, 0));
+        bucket.refund(40);
+        assertEquals(0, bucket.tryConsume(40, 0));
+        assertTrue(bucket.tryConsume(1, 0) > 0);
+
+        bucket.refund(500);
+        assertEquals(0, bucket.tryConsume(100, 0));
+        assertTrue(bucket.tryConsume(1, 0) > 0);
+    }
+
+    @Test
+    void oversizedBatchIsChargedInFull() {
+
+        TokenBucket bucket = new TokenBucket(100, 10, 0);
+
+        assertEquals(0, bucket.tryConsume(250, 0));
+
+        // 150 tokens of debt: nothing more until 15s of refill have paid it back.
+        assertTrue(bucket.tryConsume(1, 10 * SECOND) > 0);
+        assertTrue(bucket.tryConsume(1, 15 * SECOND) > 0);
+        assertEquals(0, bucket.tryConsume(1, 15 * SECOND + SECOND / 10));
+    }
+
+    @Test
+    void oversizedBatchWaitsForAFullBucket() {
+
+        TokenBucket bucket = new TokenBucket(100, 10, 0);
+
+        assertEquals(0, bucket.tryConsume(50, 0));
+        assertEquals(5 * SECOND, bucket.tryConsume(250, 0));
+        assertEquals(0, bucket.tryConsume(250, 5 * SECOND));
+    }
+}
@@ -0,0 +1,82 @@
+package com.company.factory_events.cluster;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConsistentHashRingTest {
+
+    private static final int KEYS = 30_000;
+
+    private final List<String> nodes = List.of("http://a:8081", "http://b:8081", "http://c:8081");
+
+    @Test
+    void ownerIsStableAndOneOfTheNodes() {
+
+        ConsistentHashRing ring = new ConsistentHashRing(nodes, 128);
+        ConsistentHashRing sameConfig = new ConsistentHashRing(nodes, 128);
+
+        for (int i = 0; i < 1000; i++) {
+            String owner = ring.ownerOf("E-" + i);
+            assertTrue(nodes.contains(owner));
+            assertEquals(owner, sameConfig.ownerOf("E-" + i));
+        }
+    }
+
+    @Test
+    void keysAreSpreadEvenly() {
+
+        ConsistentHashRing ring = new ConsistentHashRing(nodes, 128);
+
+        Map<String, Integer> owned = new HashMap<>();
+        for (int i = 0; i < KEYS; i++) {
+            owned.merge(ring.ownerOf("E-" + i), 1, Integer::sum);
+        }
+
+        for (String node : nodes) {
+            double share = owned.getOrDefault(node, 0) / (double) KEYS;
+            assertTrue(share > 0.25 && share < 0.42, node + " owns " + share);
+        }
+    }
+
+    @Test
+    void addingANodeOnlyMovesKeysToIt() {
+
+        ConsistentHashRing before = new ConsistentHashRing(nodes, 128);
+        ConsistentHashRing after = new ConsistentHashRing(
+                List.of("http://a:8081", "http://b:8081", "http://c:8081", "http://d:8081"), 128);
+
+        int moved = 0;
+        for (int i = 0; i < KEYS; i++) {
+            String key = "E-" + i;
+            String owner = after.ownerOf(key);
+            if (!owner.equals(before.ownerOf(key))) {
+                assertEquals("http://d:8081", owner);
+                moved++;
+            }
+        }
+
+        double movedShare = moved / (double) KEYS;
+        assertTrue(movedShare > 0.15 && movedShare < 0.35, "moved " + movedShare);
+    }
+
+    @Test
+    void emptyRingIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new ConsistentHashRing(List.of(), 128));
+    }
+
+    @Test
+    void selfMustBeListedInClusterNodes() {
+
+        ClusterConfig config = new ClusterConfig();
+
+        assertThrows(IllegalArgumentException.class,
+                () -> config.consistentHashRing("http://x:8081", "http://a:8081,http://b:8081", 128));
+        assertEquals("http://a:8081",
+                config.consistentHashRing("http://a:8081", "", 128).ownerOf("E-1"));
+    }
+}